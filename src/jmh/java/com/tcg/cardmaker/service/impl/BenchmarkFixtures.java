@@ -0,0 +1,233 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.tcg.cardmaker.TcgCardMakerApplication;
+import com.tcg.cardmaker.model.TcgCard;
+
+/**
+ * 基準測試共用資料
+ * 以專案根目錄的 test_100_cards.csv 為樣本產生各種規模的輸入 (可用 -Dtcg.bench.fixtures 指定目錄)
+ */
+final class BenchmarkFixtures {
+
+    static final String[] HEADER = {"卡片名稱", "類型", "稀有度", "攻擊力", "防禦力", "費用", "描述", "圖片URL", "背景風格", "邊框顏色"};
+
+    // HSSF (.xls) 單一工作表的列數上限 (不含標題行)
+    static final int XLS_MAX_ROWS = 65535;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 依樣本循環產生指定數量的卡片，名稱加上序號以避免重複
+     */
+    static List<TcgCard> cards(int count) throws IOException {
+        List<TcgCard> samples = sampleCards();
+        List<TcgCard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TcgCard sample = samples.get(i % samples.size());
+            TcgCard card = new TcgCard();
+            card.setName(sample.getName() + "-" + i);
+            card.setType(sample.getType());
+            card.setRarity(sample.getRarity());
+            card.setAttack(sample.getAttack());
+            card.setDefense(sample.getDefense());
+            card.setCost(sample.getCost());
+            card.setDescription(sample.getDescription());
+            card.setImageUrl(sample.getImageUrl());
+            card.setBackgroundStyle(sample.getBackgroundStyle());
+            card.setBorderColor(sample.getBorderColor());
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    /**
+     * 產生CSV檔案內容
+     */
+    static byte[] csv(int rows) throws IOException {
+        StringBuilder sb = new StringBuilder(rows * 160);
+        sb.append(String.join(",", HEADER)).append('\n');
+        for (TcgCard card : cards(rows)) {
+            String[] values = values(card);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(values[i]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 產生XLSX檔案內容
+     */
+    static byte[] xlsx(int rows) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            byte[] bytes = workbook(workbook, rows);
+            workbook.dispose();
+            return bytes;
+        }
+    }
+
+    /**
+     * 產生XLS檔案內容 (最多 {@link #XLS_MAX_ROWS} 列)
+     */
+    static byte[] xls(int rows) throws IOException {
+        if (rows > XLS_MAX_ROWS) {
+            throw new IllegalArgumentException("XLS 最多 " + XLS_MAX_ROWS + " 列: " + rows);
+        }
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            return workbook(workbook, rows);
+        }
+    }
+
+    /**
+     * 建立插圖 (1200x900 漸層PNG)，以內容定址方式存放於暫存上傳目錄的分層位置
+     * 本地插圖只接受上傳目錄內的檔案，應用程式須以 {@link ArtworkFixture#applicationArgs()} 啟動
+     */
+    static ArtworkFixture artwork() throws IOException {
+        BufferedImage image = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, new Color(30, 144, 255), 1200, 900, new Color(255, 140, 0)));
+        g2d.fillRect(0, 0, 1200, 900);
+        g2d.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        byte[] bytes = out.toByteArray();
+
+        Path uploadDir = Files.createTempDirectory("bench-uploads-");
+        Path file = LocalImageStorageService.storedPath(uploadDir.resolve("images"), ArtworkCache.sha256Hex(bytes) + ".png");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+        return new ArtworkFixture(uploadDir, file.toString());
+    }
+
+    /**
+     * 以非網頁模式啟動應用程式 (停用渲染快取，讓每次操作都實際渲染)
+     */
+    static ConfigurableApplicationContext startApplication(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--tcg.render.cache.memory-size=0B",
+                "--tcg.render.cache.disk-enabled=false",
+                "--spring.devtools.restart.enabled=false"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(TcgCardMakerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * 暫存上傳目錄中的插圖
+     *
+     * @param uploadDir 上傳目錄 (app.upload.dir)
+     * @param source 卡片的插圖路徑
+     */
+    record ArtworkFixture(Path uploadDir, String source) {
+
+        /**
+         * 指向此上傳目錄的啟動參數
+         */
+        String[] applicationArgs() {
+            return new String[]{"--app.upload.dir=" + uploadDir};
+        }
+
+        /**
+         * 確認應用程式能載入插圖，否則立即失敗 (避免量測到占位圖的路徑)
+         */
+        void verify(ConfigurableApplicationContext context) {
+            try {
+                context.getBean(ArtworkCache.class).load(source);
+            } catch (IOException e) {
+                throw new IllegalStateException("基準測試插圖無法載入: " + source, e);
+            }
+        }
+
+        /**
+         * 刪除暫存上傳目錄
+         */
+        void delete() throws IOException {
+            try (Stream<Path> paths = Files.walk(uploadDir)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static List<TcgCard> sampleCards() throws IOException {
+        Path fixture = Paths.get(System.getProperty("tcg.bench.fixtures", "."), "test_100_cards.csv");
+        List<TcgCard> samples = new ArrayList<>();
+        try (CsvCardReader reader = new CsvCardReader(
+                new InputStreamReader(Files.newInputStream(fixture), StandardCharsets.UTF_8), true)) {
+            reader.forEachRemaining(samples::add);
+        }
+        return samples;
+    }
+
+    private static byte[] workbook(Workbook workbook, int rows) throws IOException {
+        Sheet sheet = workbook.createSheet("cards");
+        writeRow(sheet.createRow(0), HEADER);
+        int rowNum = 1;
+        for (TcgCard card : cards(rows)) {
+            Row row = sheet.createRow(rowNum++);
+            String[] values = values(card);
+            for (int i = 0; i < values.length; i++) {
+                if (i >= 3 && i <= 5) {
+                    row.createCell(i).setCellValue(Integer.parseInt(values[i]));
+                } else {
+                    row.createCell(i).setCellValue(values[i]);
+                }
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
+    private static void writeRow(Row row, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    private static String[] values(TcgCard card) {
+        return new String[]{
+                card.getName(), card.getType(), card.getRarity(),
+                String.valueOf(card.getAttack()), String.valueOf(card.getDefense()), String.valueOf(card.getCost()),
+                nullToEmpty(card.getDescription()), nullToEmpty(card.getImageUrl()),
+                nullToEmpty(card.getBackgroundStyle()), nullToEmpty(card.getBorderColor())};
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
+
+/**
+ * 單張卡片渲染基準測試 (繪製與編碼，不使用渲染快取)
+ * - plain: 無插圖，繪製占位圖
+ * - artwork: 本地插圖 (已縮放插圖快取命中後的穩定狀態)
+ * - longCjk: 長篇中文描述
+ * scale 為縮放比例 (1 為 400x560，1.875 為 750x1050 列印尺寸)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g", "-Djava.awt.headless=true"})
+public class CardRenderBenchmark {
+
+    @Param({"plain", "artwork", "longCjk"})
+    public String variant;
+
+    @Param({"1", "1.875"})
+    public float scale;
+
+    private ConfigurableApplicationContext context;
+    private ImageGeneratorService imageGeneratorService;
+    private BenchmarkFixtures.ArtworkFixture artwork;
+    private TcgCard card;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        artwork = BenchmarkFixtures.artwork();
+        context = BenchmarkFixtures.startApplication(artwork.applicationArgs());
+        imageGeneratorService = context.getBean(ImageGeneratorService.class);
+
+        card = BenchmarkFixtures.cards(1).get(0);
+        card.setImageUrl(null);
+        switch (variant) {
+            case "artwork" -> {
+                artwork.verify(context);
+                card.setImageUrl(artwork.source());
+            }
+            case "longCjk" -> card.setDescription("古老的火族生物，擁有悠久的戰鬥經驗。當此生物攻擊時，獲得+1/+2直到回合結束。".repeat(6));
+            default -> { }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        artwork.delete();
+    }
+
+    @Benchmark
+    public byte[] generateCardImage() throws IOException {
+        return imageGeneratorService.generateCardImage(card, scale);
+    }
+}
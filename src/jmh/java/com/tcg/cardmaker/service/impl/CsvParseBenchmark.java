@@ -0,0 +1,122 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+/**
+ * CSV解析基準測試
+ * 以 test_100_cards.csv 的內容重複產生大型檔案，比較 RFC 4180 讀取器與原本的 split 解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class CsvParseBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Path csvFile;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        Path fixture = Paths.get(System.getProperty("tcg.bench.fixtures", "."), "test_100_cards.csv");
+        List<String> lines = Files.readAllLines(fixture, StandardCharsets.UTF_8);
+        List<String> body = lines.subList(1, lines.size());
+
+        csvFile = Files.createTempFile("csv-bench-", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            writer.write(lines.get(0));
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                writer.write(body.get(i % body.size()));
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public void csvCardReader(Blackhole blackhole) throws IOException {
+        // 與上傳解析相同：讀取器自帶緩衝區，不另外包 BufferedReader
+        Reader reader = new InputStreamReader(Files.newInputStream(csvFile), StandardCharsets.UTF_8);
+        try (CsvCardReader cards = new CsvCardReader(reader, true)) {
+            while (cards.hasNext()) {
+                blackhole.consume(cards.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void lineSplit(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            reader.lines()
+                    .skip(1)
+                    .map(CsvParseBenchmark::splitLineToCard)
+                    .forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * 原本的逐行 split 解析方式 (對照組)
+     */
+    private static TcgCard splitLineToCard(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 6) {
+            return null;
+        }
+
+        TcgCard card = new TcgCard();
+        card.setName(fields[0].trim());
+        card.setType(fields[1].trim());
+        card.setRarity(fields[2].trim());
+        card.setAttack(parseInteger(fields[3].trim()));
+        card.setDefense(parseInteger(fields[4].trim()));
+        card.setCost(parseInteger(fields[5].trim()));
+        if (fields.length > 6) card.setDescription(fields[6].trim());
+        if (fields.length > 7) card.setImageUrl(fields[7].trim());
+        if (fields.length > 8) card.setBackgroundStyle(fields[8].trim());
+        if (fields.length > 9) card.setBorderColor(fields[9].trim());
+        return card.isValid() ? card : null;
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return value.isEmpty() ? 0 : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
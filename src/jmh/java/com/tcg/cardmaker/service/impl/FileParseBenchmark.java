@@ -0,0 +1,64 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+/**
+ * 檔案解析基準測試
+ * 透過 ExcelFileParserService 解析 CSV / XLSX / XLS 上傳檔案；
+ * 資料集格式為「格式:列數」，XLS 受工作表列數上限限制，最大規模為 65535 列
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-Djava.awt.headless=true"})
+public class FileParseBenchmark {
+
+    @Param({"csv:100", "csv:10000", "csv:100000",
+            "xlsx:100", "xlsx:10000", "xlsx:100000",
+            "xls:100", "xls:10000", "xls:65535"})
+    public String dataset;
+
+    private final ExcelFileParserService parserService = new ExcelFileParserService(4, 16, new SimpleMeterRegistry());
+
+    private MockMultipartFile upload;
+
+    @Setup(Level.Trial)
+    public void createUpload() throws IOException {
+        String format = dataset.substring(0, dataset.indexOf(':'));
+        int rows = Integer.parseInt(dataset.substring(dataset.indexOf(':') + 1));
+
+        byte[] content = switch (format) {
+            case "csv" -> BenchmarkFixtures.csv(rows);
+            case "xlsx" -> BenchmarkFixtures.xlsx(rows);
+            case "xls" -> BenchmarkFixtures.xls(rows);
+            default -> throw new IllegalArgumentException("未知格式: " + format);
+        };
+        upload = new MockMultipartFile("file", "cards." + format, null, content);
+    }
+
+    @Benchmark
+    public List<TcgCard> parseFile() throws Exception {
+        return parserService.parseFile(upload);
+    }
+}
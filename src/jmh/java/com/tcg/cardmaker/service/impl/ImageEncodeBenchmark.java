@@ -0,0 +1,93 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
+
+/**
+ * 圖片編碼基準測試 (只量測編碼階段)
+ * 以一張含插圖的已渲染卡片比較 ImageIO 預設PNG、內建PNG編碼器的兩種設定及JPEG
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g", "-Djava.awt.headless=true"})
+public class ImageEncodeBenchmark {
+
+    @Param({"imageio-png", "png-preview", "png-archive", "jpeg"})
+    public String encoder;
+
+    private BufferedImage canvas;
+    private CardImageEncoder.Session session;
+    private CardImageEncoder.Profile profile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        canvas = renderCanvas();
+
+        CardImageEncoder imageEncoder = new CardImageEncoder(
+                "jpeg".equals(encoder) ? "JPEG" : "PNG", 95,
+                1, PngEncoder.Filter.SUB, 6, PngEncoder.Filter.ADAPTIVE);
+        session = imageEncoder.newSession();
+        profile = "png-preview".equals(encoder) ? CardImageEncoder.Profile.PREVIEW : CardImageEncoder.Profile.ARCHIVE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.dispose();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if ("imageio-png".equals(encoder)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(canvas, "PNG", out);
+            return out.toByteArray();
+        }
+        return session.encode(canvas, profile);
+    }
+
+    /**
+     * 渲染一張含插圖的卡片並解碼回 INT_RGB 畫布
+     */
+    private static BufferedImage renderCanvas() throws IOException {
+        BenchmarkFixtures.ArtworkFixture artwork = BenchmarkFixtures.artwork();
+        try (ConfigurableApplicationContext context = BenchmarkFixtures.startApplication(artwork.applicationArgs())) {
+            artwork.verify(context);
+            TcgCard card = BenchmarkFixtures.cards(1).get(0);
+            card.setImageUrl(artwork.source());
+            byte[] png = context.getBean(ImageGeneratorService.class).generateCardImage(card);
+
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+            BufferedImage canvas = new BufferedImage(decoded.getWidth(), decoded.getHeight(), BufferedImage.TYPE_INT_RGB);
+            canvas.getGraphics().drawImage(decoded, 0, 0, null);
+            return canvas;
+        } finally {
+            artwork.delete();
+        }
+    }
+}
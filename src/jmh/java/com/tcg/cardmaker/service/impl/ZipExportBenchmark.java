@@ -0,0 +1,75 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.CardArchiveService;
+
+/**
+ * 批量ZIP匯出端對端基準測試
+ * 平行渲染、編碼並寫出ZIP串流 (輸出丟棄)，不使用渲染快取；
+ * 樣本中的遠端圖片URL替換為本地插圖或移除，避免量測網路
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g", "-Djava.awt.headless=true"})
+public class ZipExportBenchmark {
+
+    @Param({"100"})
+    public int cards;
+
+    @Param({"none", "local"})
+    public String artwork;
+
+    private ConfigurableApplicationContext context;
+    private CardArchiveService cardArchiveService;
+    private BenchmarkFixtures.ArtworkFixture artworkFixture;
+    private List<TcgCard> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        artworkFixture = BenchmarkFixtures.artwork();
+        context = BenchmarkFixtures.startApplication(artworkFixture.applicationArgs());
+        cardArchiveService = context.getBean(CardArchiveService.class);
+        if ("local".equals(artwork)) {
+            artworkFixture.verify(context);
+        }
+
+        batch = BenchmarkFixtures.cards(cards);
+        for (TcgCard card : batch) {
+            card.setImageUrl("local".equals(artwork) ? artworkFixture.source() : null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        artworkFixture.delete();
+    }
+
+    @Benchmark
+    public int writeArchive() throws IOException {
+        return cardArchiveService.writeArchive(batch, OutputStream.nullOutputStream());
+    }
+}
@@ -1,10 +1,9 @@
 package com.tcg.cardmaker.controller;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,14 +14,22 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.tcg.cardmaker.exception.RenderRejectedException;
 import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.impl.ArtworkPrefetcher;
+import com.tcg.cardmaker.service.impl.RenderAdmissionGate;
+import com.tcg.cardmaker.service.interfaces.CardArchiveService;
+import com.tcg.cardmaker.service.interfaces.CardSheetService;
 import com.tcg.cardmaker.service.interfaces.FileParserService;
 import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
 import com.tcg.cardmaker.service.interfaces.ImageStorageService;
@@ -45,13 +52,25 @@ public class CardMakerController {
     private final FileParserService fileParserService;
     private final ImageGeneratorService imageGeneratorService;
     private final ImageStorageService imageStorageService;
+    private final CardArchiveService cardArchiveService;
+    private final CardSheetService cardSheetService;
+    private final ArtworkPrefetcher artworkPrefetcher;
+    private final RenderAdmissionGate renderAdmissionGate;
 
     public CardMakerController(FileParserService fileParserService, 
                               ImageGeneratorService imageGeneratorService,
-                              ImageStorageService imageStorageService) {
+                              ImageStorageService imageStorageService,
+                              CardArchiveService cardArchiveService,
+                              CardSheetService cardSheetService,
+                              ArtworkPrefetcher artworkPrefetcher,
+                              RenderAdmissionGate renderAdmissionGate) {
         this.fileParserService = fileParserService;
         this.imageGeneratorService = imageGeneratorService;
         this.imageStorageService = imageStorageService;
+        this.cardArchiveService = cardArchiveService;
+        this.cardSheetService = cardSheetService;
+        this.artworkPrefetcher = artworkPrefetcher;
+        this.renderAdmissionGate = renderAdmissionGate;
     }
 
     /**
@@ -87,6 +106,9 @@ public class CardMakerController {
                 return handleValidationError("檔案中沒有找到有效的卡片數據", model);
             }
 
+            // 背景預取插圖，使用者預覽或下載時可直接使用
+            artworkPrefetcher.prefetch(cards);
+
             // 成功處理
             model.addAttribute("cards", cards);
             model.addAttribute("cardCount", cards.size());
@@ -119,7 +141,9 @@ public class CardMakerController {
                     result.getFilePath(), 
                     result.getThumbnailPath(),
                     result.getOriginalFilename(),
-                    null
+                    null,
+                    result.getThumbnailState(),
+                    result.getReleaseToken()
                 ));
             } else {
                 return ResponseEntity.badRequest()
@@ -133,25 +157,62 @@ public class CardMakerController {
         }
     }
 
+    /**
+     * 查詢上傳圖片的縮圖狀態 (縮圖於上傳回應後非同步產生)
+     */
+    @GetMapping("/upload-image/{filename}/thumbnail")
+    @ResponseBody
+    @CrossOrigin(origins = "*")
+    public ResponseEntity<ImageStorageService.ThumbnailStatus> getThumbnailStatus(@PathVariable String filename) {
+        return imageStorageService.getThumbnailStatus(filename)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 釋放上傳圖片的引用 (相同內容的最後一個引用釋放後才刪除檔案)
+     * 需提供上傳回應中的釋放憑證，只有上傳者能釋放自己的引用
+     */
+    @DeleteMapping("/upload-image/{filename}")
+    @ResponseBody
+    @CrossOrigin(origins = "*")
+    public ResponseEntity<Void> releaseImage(@PathVariable String filename,
+                                             @RequestParam("token") String releaseToken) {
+        return imageStorageService.releaseImage(filename, releaseToken)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
     /**
      * 預覽單張卡片
+     * 可選的 scale 參數指定相對於 400x560 的縮放比例 (例如列印用 1.875 即 750x1050)
      */
     @PostMapping("/preview-card")
     @ResponseBody
-    public ResponseEntity<byte[]> previewCard(@RequestBody TcgCard card) {
+    public ResponseEntity<byte[]> previewCard(@RequestBody TcgCard card,
+                                              @RequestParam(value = "scale", required = false) Float scale) {
+        if (scale != null && !imageGeneratorService.isSupportedScale(scale)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
         try {
             log.info("生成卡片預覽: {}", card.getName());
             
-            byte[] imageBytes = imageGeneratorService.generateCardImage(card);
+            byte[] imageBytes = scale != null
+                    ? imageGeneratorService.generateCardImage(card, scale)
+                    : imageGeneratorService.generateCardImage(card);
             
             HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_PNG);
+            headers.setContentType(MediaType.parseMediaType(imageGeneratorService.getContentType()));
             headers.setContentLength(imageBytes.length);
             headers.set("Content-Disposition", "inline; filename=\"" + 
-                       sanitizeFilename(card.getName()) + ".png\"");
+                       sanitizeFilename(card.getName()) + "." + imageGeneratorService.getFileExtension() + "\"");
             
             return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
             
+        } catch (RenderRejectedException e) {
+            log.debug("生成卡片預覽被拒絕: {} ({})", card.getName(), e.getMessage());
+            return tooManyRequests(e.getRetryAfter());
         } catch (IOException | RuntimeException e) {
             log.error("生成卡片預覽失敗: {}", card.getName(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -160,47 +221,109 @@ public class CardMakerController {
 
     /**
      * 批量下載所有卡片
+     * 以串流方式回應，每張卡片渲染完成即寫出；可選的 scale 參數同預覽
      */
     @PostMapping("/download-all")
     @ResponseBody
-    public ResponseEntity<byte[]> downloadAllCards(@RequestBody List<TcgCard> cards) {
+    public ResponseEntity<StreamingResponseBody> downloadAllCards(@RequestBody List<TcgCard> cards,
+                                                                  @RequestParam(value = "scale", required = false) Float scale) {
+        if (scale != null && !imageGeneratorService.isSupportedScale(scale)) {
+            return ResponseEntity.badRequest().build();
+        }
+        RenderAdmissionGate.Permit batchPermit;
         try {
-            log.info("批量生成 {} 張卡片", cards.size());
-            
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-                
-                for (int i = 0; i < cards.size(); i++) {
-                    TcgCard card = cards.get(i);
-                    try {
-                        byte[] imageBytes = imageGeneratorService.generateCardImage(card);
-                        String filename = String.format("%03d_%s.png", i + 1, sanitizeFilename(card.getName()));
-                        
-                        ZipEntry entry = new ZipEntry(filename);
-                        zos.putNextEntry(entry);
-                        zos.write(imageBytes);
-                        zos.closeEntry();
-                        
-                    } catch (IOException | RuntimeException e) {
-                        log.warn("生成卡片失敗，跳過: {}", card.getName(), e);
-                    }
-                }
+            batchPermit = renderAdmissionGate.acquireBatchStream();
+        } catch (RenderRejectedException e) {
+            return tooManyRequests(e.getRetryAfter());
+        } catch (InterruptedIOException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        log.info("批量生成 {} 張卡片", cards.size());
+        
+        float renderScale = scale != null ? scale : imageGeneratorService.getDefaultScale();
+        StreamingResponseBody body = outputStream -> {
+            try {
+                cardArchiveService.writeArchive(cards, renderScale, outputStream);
+            } catch (IOException | RuntimeException e) {
+                log.error("批量下載失敗", e);
+                throw e;
+            } finally {
+                batchPermit.close();
             }
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.set("Content-Disposition", "attachment; filename=\"tcg_cards.zip\"");
-            
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
-            
-        } catch (IOException | RuntimeException e) {
-            log.error("批量下載失敗", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        };
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.set("Content-Disposition", "attachment; filename=\"tcg_cards.zip\"");
+        
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * 下載印刷拼版 (每張版面一張圖片的ZIP)
+     * 未指定的參數沿用設定檔的預設版面；出血、邊界以 400x560 基準尺寸的像素為單位
+     */
+    @PostMapping("/download-sheets")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> downloadSheets(@RequestBody List<TcgCard> cards,
+                                                                @RequestParam(value = "columns", required = false) Integer columns,
+                                                                @RequestParam(value = "rows", required = false) Integer rows,
+                                                                @RequestParam(value = "scale", required = false) Float scale,
+                                                                @RequestParam(value = "bleed", required = false) Integer bleed,
+                                                                @RequestParam(value = "margin", required = false) Integer margin,
+                                                                @RequestParam(value = "cropMarks", required = false) Boolean cropMarks) {
+        CardSheetService.SheetLayout defaults = cardSheetService.getDefaultLayout();
+        CardSheetService.SheetLayout layout = new CardSheetService.SheetLayout(
+            columns != null ? columns : defaults.columns(),
+            rows != null ? rows : defaults.rows(),
+            scale != null ? scale : defaults.scale(),
+            bleed != null ? bleed : defaults.bleed(),
+            defaults.gutter(),
+            margin != null ? margin : defaults.margin(),
+            cropMarks != null ? cropMarks : defaults.cropMarks()
+        );
+        if (!cardSheetService.isSupportedLayout(layout)) {
+            return ResponseEntity.badRequest().build();
+        }
+        RenderAdmissionGate.Permit batchPermit;
+        try {
+            batchPermit = renderAdmissionGate.acquireBatchStream();
+        } catch (RenderRejectedException e) {
+            return tooManyRequests(e.getRetryAfter());
+        } catch (InterruptedIOException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
+        log.info("拼版輸出 {} 張卡片: {}", cards.size(), layout);
+        
+        StreamingResponseBody body = outputStream -> {
+            try {
+                cardSheetService.writeSheets(cards, layout, outputStream);
+            } catch (IOException | RuntimeException e) {
+                log.error("拼版下載失敗", e);
+                throw e;
+            } finally {
+                batchPermit.close();
+            }
+        };
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.set("Content-Disposition", "attachment; filename=\"tcg_sheets.zip\"");
+        
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     // ========== 私有輔助方法 ==========
 
+    /**
+     * 渲染忙碌時的回應 (429，附 Retry-After 秒數)
+     */
+    private <T> ResponseEntity<T> tooManyRequests(Duration retryAfter) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+            .build();
+    }
+
     /**
      * 檔案驗證
      */
@@ -277,14 +400,24 @@ public class CardMakerController {
         private final String thumbnailPath;
         private final String originalFilename;
         private final String error;
+        private final ImageStorageService.ThumbnailState thumbnailState;
+        private final String releaseToken;
 
         public ImageUploadResponse(boolean success, String filePath, String thumbnailPath, 
                                  String originalFilename, String error) {
+            this(success, filePath, thumbnailPath, originalFilename, error, null, null);
+        }
+
+        public ImageUploadResponse(boolean success, String filePath, String thumbnailPath, 
+                                 String originalFilename, String error,
+                                 ImageStorageService.ThumbnailState thumbnailState, String releaseToken) {
             this.success = success;
             this.filePath = filePath;
             this.thumbnailPath = thumbnailPath;
             this.originalFilename = originalFilename;
             this.error = error;
+            this.thumbnailState = thumbnailState;
+            this.releaseToken = releaseToken;
         }
 
         // Getters
@@ -293,5 +426,7 @@ public class CardMakerController {
         public String getThumbnailPath() { return thumbnailPath; }
         public String getOriginalFilename() { return originalFilename; }
         public String getError() { return error; }
+        public ImageStorageService.ThumbnailState getThumbnailState() { return thumbnailState; }
+        public String getReleaseToken() { return releaseToken; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.tcg.cardmaker.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.tcg.cardmaker.exception.ExportJobRejectedException;
+import com.tcg.cardmaker.model.ExportJob;
+import com.tcg.cardmaker.service.interfaces.ExportJobService;
+import com.tcg.cardmaker.service.interfaces.FileParserService;
+
+/**
+ * 匯出工作控制器
+ * 上傳卡片檔案後取得工作ID，伺服器端完成解析、渲染與打包，
+ * 再透過工作ID查詢進度與下載結果
+ */
+@RestController
+@RequestMapping("/jobs")
+public class ExportJobController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobController.class);
+    
+    private final ExportJobService exportJobService;
+    private final FileParserService fileParserService;
+
+    public ExportJobController(ExportJobService exportJobService, FileParserService fileParserService) {
+        this.exportJobService = exportJobService;
+        this.fileParserService = fileParserService;
+    }
+
+    /**
+     * 提交匯出工作
+     * 指定 baseline (先前的工作ID) 時以該次匯出為基準，只渲染變更的卡片
+     */
+    @PostMapping
+    public ResponseEntity<?> submitJob(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(value = "baseline", required = false) String baseline) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "請選擇一個檔案"));
+        }
+        if (!fileParserService.isSupported(file)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "不支援的檔案格式，請參考格式說明"));
+        }
+        if (baseline != null && !baseline.isBlank() && !isJobId(baseline.trim())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "基準工作ID格式不正確"));
+        }
+        
+        try {
+            ExportJob job = exportJobService.submit(file, baseline);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (ExportJobRejectedException e) {
+            log.debug("匯出工作被拒絕: {} ({})", file.getOriginalFilename(), e.getMessage());
+            return tooManyRequests(e.getRetryAfter(), e.getMessage());
+        } catch (IOException e) {
+            log.error("提交匯出工作失敗: {}", file.getOriginalFilename(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "提交匯出工作失敗: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查詢工作進度
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJob> getJob(@PathVariable String jobId) {
+        return exportJobService.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 下載工作產出的ZIP檔案
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> downloadArtifact(@PathVariable String jobId) {
+        ExportJob job = exportJobService.getJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        
+        // 下載串流關閉前產出檔案不會被過期清除
+        Optional<InputStream> artifact;
+        try {
+            artifact = exportJobService.openArtifact(job);
+        } catch (IOException e) {
+            log.error("開啟工作產出檔案失敗: {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        if (artifact.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentLength(job.getArtifactBytes());
+        headers.set("Content-Disposition", "attachment; filename=\"tcg_cards.zip\"");
+        
+        return new ResponseEntity<>(new InputStreamResource(artifact.get()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * 檢查工作ID格式 (UUID)
+     */
+    private static boolean isJobId(String jobId) {
+        try {
+            UUID.fromString(jobId);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 429 回應，附上 Retry-After (秒)
+     */
+    private ResponseEntity<?> tooManyRequests(Duration retryAfter, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+            .body(Map.of("error", message));
+    }
+}
@@ -0,0 +1,54 @@
+package com.tcg.cardmaker.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tcg.cardmaker.service.impl.ArtworkCache;
+import com.tcg.cardmaker.service.impl.CardRenderCache;
+import com.tcg.cardmaker.service.impl.RenderAdmissionGate;
+
+/**
+ * 執行狀態統計控制器
+ * 提供快取等內部元件的統計資訊
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final CardRenderCache renderCache;
+    private final ArtworkCache artworkCache;
+    private final RenderAdmissionGate renderAdmissionGate;
+
+    public StatsController(CardRenderCache renderCache, ArtworkCache artworkCache,
+                           RenderAdmissionGate renderAdmissionGate) {
+        this.renderCache = renderCache;
+        this.artworkCache = artworkCache;
+        this.renderAdmissionGate = renderAdmissionGate;
+    }
+
+    /**
+     * 已渲染卡片快取統計
+     */
+    @GetMapping("/render-cache")
+    public ResponseEntity<CardRenderCache.Stats> renderCacheStats() {
+        return ResponseEntity.ok(renderCache.getStats());
+    }
+
+    /**
+     * 卡片插圖快取統計
+     */
+    @GetMapping("/artwork-cache")
+    public ResponseEntity<ArtworkCache.Stats> artworkCacheStats() {
+        return ResponseEntity.ok(artworkCache.getStats());
+    }
+
+    /**
+     * 渲染准入控制統計 (許可使用數、等待數、拒絕數及等待時間)
+     */
+    @GetMapping("/render-admission")
+    public ResponseEntity<RenderAdmissionGate.Stats> renderAdmissionStats() {
+        return ResponseEntity.ok(renderAdmissionGate.getStats());
+    }
+}
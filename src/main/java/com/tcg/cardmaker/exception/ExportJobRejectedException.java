@@ -0,0 +1,26 @@
+package com.tcg.cardmaker.exception;
+
+import java.time.Duration;
+
+/**
+ * 匯出工作被拒絕異常
+ * 執行中及排隊中的匯出工作已達上限時拋出，呼叫端應稍後重試 (HTTP 429)
+ */
+public class ExportJobRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public ExportJobRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 建議的重試間隔
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
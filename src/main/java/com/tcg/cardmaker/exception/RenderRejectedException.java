@@ -0,0 +1,26 @@
+package com.tcg.cardmaker.exception;
+
+import java.time.Duration;
+
+/**
+ * 渲染請求被拒絕異常
+ * 渲染許可已滿且等待佇列已滿或等待逾時時拋出，呼叫端應稍後重試 (HTTP 429)
+ */
+public class RenderRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public RenderRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 建議的重試間隔
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,145 @@
+package com.tcg.cardmaker.model;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 卡片匯出工作
+ * 記錄伺服器端 上傳→解析→渲染→打包 管線的進度、各階段耗時與產出檔案
+ */
+public class ExportJob {
+    
+    /**
+     * 工作狀態
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private final String id;
+    private final String sourceFilename;
+    private final String baselineJobId;
+    private final long createdAt;
+    
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean parseComplete;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile long artifactBytes;
+    private volatile String errorMessage;
+    private volatile Path artifactPath;
+    
+    private final AtomicInteger cardsParsed = new AtomicInteger();
+    private final AtomicInteger cardsRendered = new AtomicInteger();
+    private final AtomicInteger cardsFailed = new AtomicInteger();
+    private final AtomicInteger cardsReused = new AtomicInteger();
+    
+    // 進行中的產出檔案下載數
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+    
+    // 各階段耗時 (毫秒)
+    private final Map<String, Long> stageTimings = new ConcurrentHashMap<>();
+
+    public ExportJob(String id, String sourceFilename, String baselineJobId) {
+        this.id = id;
+        this.sourceFilename = sourceFilename;
+        this.baselineJobId = baselineJobId;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    // Getter 方法
+    public String getId() { return id; }
+    public String getSourceFilename() { return sourceFilename; }
+    public String getBaselineJobId() { return baselineJobId; }
+    public long getCreatedAt() { return createdAt; }
+    public Status getStatus() { return status; }
+    public boolean isParseComplete() { return parseComplete; }
+    public long getStartedAt() { return startedAt; }
+    public long getFinishedAt() { return finishedAt; }
+    public long getArtifactBytes() { return artifactBytes; }
+    public String getErrorMessage() { return errorMessage; }
+    public int getCardsParsed() { return cardsParsed.get(); }
+    public int getCardsRendered() { return cardsRendered.get(); }
+    public int getCardsFailed() { return cardsFailed.get(); }
+    public int getCardsReused() { return cardsReused.get(); }
+    public Map<String, Long> getStageTimings() { return stageTimings; }
+    
+    @JsonIgnore
+    public Path getArtifactPath() { return artifactPath; }
+    
+    @JsonIgnore
+    public int getActiveDownloads() { return activeDownloads.get(); }
+    
+    /**
+     * 取得進度百分比，解析尚未完成時總數未知，回傳 -1
+     */
+    public int getProgressPercent() {
+        if (status == Status.COMPLETED) return 100;
+        int total = cardsParsed.get();
+        if (!parseComplete || total == 0) return -1;
+        return (int) ((cardsRendered.get() + cardsFailed.get() + cardsReused.get()) * 100L / total);
+    }
+    
+    /**
+     * 是否已結束 (成功或失敗)
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // 狀態更新方法
+    public void markRunning() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+    
+    public void markParseComplete() {
+        parseComplete = true;
+    }
+    
+    public void markCompleted(Path artifactPath, long artifactBytes) {
+        this.artifactPath = artifactPath;
+        this.artifactBytes = artifactBytes;
+        finishedAt = System.currentTimeMillis();
+        status = Status.COMPLETED;
+    }
+    
+    public void markFailed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+    
+    public void incrementParsed() {
+        cardsParsed.incrementAndGet();
+    }
+    
+    public void incrementRendered() {
+        cardsRendered.incrementAndGet();
+    }
+    
+    public void incrementFailed() {
+        cardsFailed.incrementAndGet();
+    }
+    
+    public void incrementReused() {
+        cardsReused.incrementAndGet();
+    }
+    
+    public void downloadStarted() {
+        activeDownloads.incrementAndGet();
+    }
+    
+    public void downloadFinished() {
+        activeDownloads.decrementAndGet();
+    }
+    
+    public void recordStageTiming(String stage, long millis) {
+        stageTimings.put(stage, millis);
+    }
+}
@@ -0,0 +1,118 @@
+package com.tcg.cardmaker.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 匯出清單
+ * 記錄一份ZIP匯出中每個項目對應的卡片內容雜湊與插圖內容雜湊，
+ * 下一次匯出時可據此判斷哪些卡片未變更，直接沿用上一份ZIP中的項目
+ *
+ * 檔案格式 (UTF-8，以 Tab 分隔)：
+ * archive	ZIP檔名
+ * entry	項目名稱	卡片雜湊	插圖雜湊
+ */
+public class ExportManifest {
+
+    private static final String ARCHIVE_LINE = "archive";
+    private static final String ENTRY_LINE = "entry";
+
+    /**
+     * 清單項目
+     *
+     * @param entryName ZIP項目名稱
+     * @param cardHash 卡片欄位及渲染設定的雜湊
+     * @param artworkHash 插圖內容的雜湊，無插圖時為空字串
+     */
+    public record Entry(String entryName, String cardHash, String artworkHash) {
+    }
+
+    private final String archiveName;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Entry> entriesByContent = new HashMap<>();
+
+    public ExportManifest(String archiveName) {
+        this.archiveName = archiveName;
+    }
+
+    public String getArchiveName() { return archiveName; }
+    public List<Entry> getEntries() { return Collections.unmodifiableList(entries); }
+    public int size() { return entries.size(); }
+
+    /**
+     * 加入項目
+     */
+    public void add(Entry entry) {
+        entries.add(entry);
+        entriesByContent.putIfAbsent(contentKey(entry.cardHash(), entry.artworkHash()), entry);
+    }
+
+    /**
+     * 依內容雜湊尋找項目
+     *
+     * @return 內容相同的項目，不存在時為 null
+     */
+    public Entry find(String cardHash, String artworkHash) {
+        return entriesByContent.get(contentKey(cardHash, artworkHash));
+    }
+
+    /**
+     * 讀取清單檔
+     *
+     * @throws IOException 讀取失敗或格式錯誤時拋出異常
+     */
+    public static ExportManifest read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] header = split(reader.readLine(), 2, file);
+            if (!ARCHIVE_LINE.equals(header[0])) {
+                throw new IOException("匯出清單格式錯誤: " + file);
+            }
+
+            ExportManifest manifest = new ExportManifest(header[1]);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] fields = split(line, 4, file);
+                if (ENTRY_LINE.equals(fields[0])) {
+                    manifest.add(new Entry(fields[1], fields[2], fields[3]));
+                }
+            }
+            return manifest;
+        }
+    }
+
+    /**
+     * 寫出清單檔
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(ARCHIVE_LINE + '\t' + archiveName);
+            writer.newLine();
+            for (Entry entry : entries) {
+                writer.write(String.join("\t", ENTRY_LINE, entry.entryName(), entry.cardHash(), entry.artworkHash()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String contentKey(String cardHash, String artworkHash) {
+        return cardHash + '/' + artworkHash;
+    }
+
+    private static String[] split(String line, int fieldCount, Path file) throws IOException {
+        String[] fields = line == null ? new String[0] : line.split("\t", -1);
+        if (fields.length != fieldCount) {
+            throw new IOException("匯出清單格式錯誤: " + file);
+        }
+        return fields;
+    }
+}
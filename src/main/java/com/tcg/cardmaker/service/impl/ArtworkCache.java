@@ -0,0 +1,533 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 卡片插圖快取
+ * 位於卡片插圖載入之前，避免同一張插圖被重複下載：
+ * - 記憶體層：以原始位元組大小限制容量的LRU
+ * - 磁碟層：保存原始位元組與 ETag/Last-Modified，過期後以條件式請求重新驗證
+ * - 同一網址同時只會有一個下載進行中，其他請求等待其結果
+ * - 遠端回應超過下載大小上限時放棄 (有舊副本時改用舊副本)，避免單一回應耗盡記憶體
+ * - 驗證資訊 (內容摘要、修改時間、驗證時間) 另以項目數限制保存，原始位元組被淘汰後仍可判斷內容是否變更
+ * - 本地來源只接受上傳目錄內的檔案，讀取量以上傳大小上限為限
+ * - 上傳區的內容定址檔案 (檔名即內容雜湊) 內容不會變更，不必檢查修改時間，摘要直接取自檔名
+ * 解碼與縮放由 {@link ScaledArtworkStore} 依內容摘要另行快取
+ */
+@Component
+public class ArtworkCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ArtworkCache.class);
+    
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 10000;
+    
+    // 驗證資訊索引的項目數上限 (每項僅數十位元組)
+    private static final int MAX_VALIDATORS = 4096;
+    
+    // 上傳區內容定址檔案的版本標記 (內容不會變更，不檢查修改時間)
+    private static final long IMMUTABLE = Long.MIN_VALUE;
+    
+    private final Path cacheDir;
+    private final Path uploadImagesDir;
+    private final long maxMemoryBytes;
+    private final long maxDownloadBytes;
+    private final long revalidateAfterMillis;
+    
+    // 記憶體LRU (存取順序)
+    private final LinkedHashMap<String, Entry> memoryCache = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    
+    // 來源 → 內容摘要及驗證資訊，原始位元組被淘汰後仍保留，供已縮放插圖快取判斷命中
+    private final LinkedHashMap<String, Validator> validators = new LinkedHashMap<>(64, 0.75f, true);
+    
+    // 進行中的載入，同一來源只會有一個
+    private final Map<String, CompletableFuture<Artwork>> inFlight = new ConcurrentHashMap<>();
+    
+    // 統計計數
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    private final MeterRegistry meterRegistry;
+
+    public ArtworkCache(@Value("${tcg.card.temp-dir:./temp}") String tempDir,
+                        @Value("${app.upload.dir:uploads}") String uploadDir,
+                        @Value("${tcg.artwork.cache.memory-size:64MB}") DataSize memorySize,
+                        @Value("${tcg.artwork.cache.revalidate-after:10m}") Duration revalidateAfter,
+                        @Value("${tcg.artwork.cache.max-download-size:10MB}") DataSize maxDownloadSize,
+                        MeterRegistry meterRegistry) {
+        this.cacheDir = Paths.get(tempDir, "artwork");
+        this.uploadImagesDir = Paths.get(uploadDir, "images").toAbsolutePath().normalize();
+        this.maxMemoryBytes = memorySize.toBytes();
+        this.revalidateAfterMillis = revalidateAfter.toMillis();
+        this.maxDownloadBytes = maxDownloadSize.toBytes();
+        this.meterRegistry = meterRegistry;
+        
+        // 既有統計計數同時以計數器指標公開
+        FunctionCounter.builder("tcg.artwork.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("tcg.artwork.cache.coalesced", coalesced, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("tcg.artwork.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * 載入插圖
+     * 
+     * @param source 本地路徑或遠端URL
+     * @return 插圖原始位元組及內容摘要 (共用實例，呼叫端不可修改)
+     * @throws IOException 無法載入時拋出異常
+     */
+    public Artwork load(String source) throws IOException {
+        Entry current = memoryGet(source);
+        if (current != null && isFresh(source, current.validator())) {
+            hits.incrementAndGet();
+            return current.artwork();
+        }
+        
+        CompletableFuture<Artwork> own = new CompletableFuture<>();
+        CompletableFuture<Artwork> existing = inFlight.putIfAbsent(source, own);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+        
+        boolean local = isLocalFilePath(source);
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            Artwork artwork = local ? loadLocal(source) : loadRemote(source, current);
+            own.complete(artwork);
+            outcome = "success";
+            return artwork;
+        } catch (IOException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(source, own);
+            fetchTimer(local ? "local" : "remote", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 取得已知且仍有效的內容摘要
+     * 原始位元組即使已被淘汰，只要驗證資訊仍有效即可判斷內容未變更，不必重新讀取或請求
+     * 
+     * @param source 本地路徑或遠端URL
+     * @return 內容摘要，未曾載入或需重新驗證時為 null
+     */
+    public String cachedDigest(String source) {
+        Validator validator = validatorGet(source);
+        return validator != null && isFresh(source, validator) ? validator.digest() : null;
+    }
+
+    /**
+     * 移除指定檔名的本地插圖快取 (例如上傳圖片已被刪除)
+     * 內容定址檔案不檢查修改時間，刪除後必須移除，否則仍會以快取內容渲染
+     * 
+     * @param filename 檔案名稱 (不含目錄)
+     */
+    public void invalidate(String filename) {
+        synchronized (validators) {
+            validators.keySet().removeIf(source -> isLocalFile(source, filename));
+        }
+        synchronized (memoryCache) {
+            Iterator<Map.Entry<String, Entry>> it = memoryCache.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> entry = it.next();
+                if (isLocalFile(entry.getKey(), filename)) {
+                    memoryBytes -= entry.getValue().weight();
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static boolean isLocalFile(String source, String filename) {
+        return isLocalFilePath(source) && (source.equals(filename)
+                || source.endsWith("/" + filename) || source.endsWith("\\" + filename));
+    }
+
+    /**
+     * 判斷是否為本地檔案路徑 (不含 scheme:// 的來源)
+     * 實際載入時只接受位於上傳目錄內的檔案，其他位置一律拒絕
+     */
+    public static boolean isLocalFilePath(String path) {
+        return !path.contains("://");
+    }
+
+    /**
+     * 取得快取統計
+     */
+    public Stats getStats() {
+        synchronized (memoryCache) {
+            return new Stats(hits.get(), coalesced.get(), downloads.get(), revalidations.get(),
+                    staleServed.get(), evictions.get(), memoryCache.size(), memoryBytes, maxMemoryBytes);
+        }
+    }
+
+    /**
+     * 插圖實際載入 (未命中記憶體層) 的耗時，依來源與結果分類
+     */
+    private Timer fetchTimer(String source, String outcome) {
+        return Timer.builder("tcg.artwork.fetch")
+                .description("插圖載入耗時 (未命中記憶體快取)")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 判斷記憶體中的項目 (或其驗證資訊) 是否仍可直接使用
+     * 本地檔案以修改時間判斷，遠端圖片以重新驗證間隔判斷
+     */
+    private boolean isFresh(String source, Validator validator) {
+        if (isLocalFilePath(source)) {
+            if (validator.version() == IMMUTABLE) {
+                return true;
+            }
+            try {
+                return validator.version() == Files.getLastModifiedTime(resolveLocalPath(source)).toMillis();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return System.currentTimeMillis() - validator.validatedAt() < revalidateAfterMillis;
+    }
+
+    /**
+     * 載入本地圖片
+     */
+    private Artwork loadLocal(String imagePath) throws IOException {
+        Path path = resolveLocalPath(imagePath);
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("本地圖片不存在: " + imagePath);
+        }
+        if (Files.size(path) > LocalImageStorageService.MAX_FILE_SIZE) {
+            throw new IOException("本地圖片超過大小上限 (" + Files.size(path) + " 位元組): " + imagePath);
+        }
+        
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        byte[] bytes;
+        try (InputStream in = Files.newInputStream(path)) {
+            bytes = readLimited(in, LocalImageStorageService.MAX_FILE_SIZE, imagePath);
+        }
+        
+        // 只有存放於上傳區分層位置的內容定址檔案才信任檔名中的摘要
+        String filename = path.getFileName().toString();
+        boolean stored = LocalImageStorageService.isContentAddressed(filename)
+                && path.equals(LocalImageStorageService.storedPath(uploadImagesDir, filename));
+        Artwork artwork = stored
+                ? new Artwork(imagePath, bytes, filename.substring(0, filename.indexOf('.')))
+                : Artwork.of(imagePath, bytes);
+        memoryPut(imagePath, Entry.of(artwork, stored ? IMMUTABLE : lastModified));
+        return artwork;
+    }
+
+    /**
+     * 解析本地圖片路徑，只接受上傳目錄內的檔案
+     * 正規化後位於上傳目錄內的路徑直接使用，找不到時 (或來源僅為檔名時) 改在上傳目錄中依檔名尋找
+     * (內容定址檔案位於分層子目錄)；絕對路徑、../ 等解析至上傳目錄外的來源一律拒絕
+     */
+    private Path resolveLocalPath(String imagePath) throws IOException {
+        Path requested;
+        try {
+            requested = Paths.get(imagePath);
+        } catch (InvalidPathException e) {
+            throw new IOException("無效的本地圖片路徑: " + imagePath, e);
+        }
+        
+        Path path = requested.toAbsolutePath().normalize();
+        boolean inUploads = path.startsWith(uploadImagesDir);
+        if (!inUploads || !Files.exists(path)) {
+            if (!inUploads && requested.getNameCount() != 1) {
+                throw new IOException("本地圖片不在上傳目錄內: " + imagePath);
+            }
+            path = LocalImageStorageService.storedPath(uploadImagesDir, requested.getFileName().toString()).normalize();
+        }
+        
+        // 連結指向上傳目錄外時同樣拒絕
+        if (!path.startsWith(uploadImagesDir)
+                || (Files.exists(path) && !path.toRealPath().startsWith(uploadImagesDir.toRealPath()))) {
+            throw new IOException("本地圖片不在上傳目錄內: " + imagePath);
+        }
+        return path;
+    }
+
+    /**
+     * 載入遠端圖片，磁碟上已有副本時以條件式請求重新驗證
+     */
+    private Artwork loadRemote(String imageUrl, Entry current) throws IOException {
+        String key = sha256Hex(imageUrl);
+        Path dataFile = cacheDir.resolve(key + ".img");
+        Path metaFile = cacheDir.resolve(key + ".properties");
+        Properties meta = Files.exists(dataFile) ? readMeta(metaFile) : null;
+        
+        HttpURLConnection connection = (HttpURLConnection) new URL(imageUrl).openConnection();
+        connection.setRequestProperty("User-Agent", "TCG Card Maker 1.0");
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        if (meta != null) {
+            String etag = meta.getProperty("etag");
+            String lastModified = meta.getProperty("last-modified");
+            if (etag != null) connection.setRequestProperty("If-None-Match", etag);
+            if (lastModified != null) connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+        
+        byte[] bytes;
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && meta != null) {
+                revalidations.incrementAndGet();
+                if (current != null) {
+                    // 內容未變更，沿用記憶體中的副本
+                    Entry refreshed = new Entry(current.artwork(),
+                            new Validator(current.artwork().digest(), current.version(), System.currentTimeMillis()));
+                    memoryPut(imageUrl, refreshed);
+                    return current.artwork();
+                }
+                bytes = Files.readAllBytes(dataFile);
+            } else if (status == HttpURLConnection.HTTP_OK) {
+                if (connection.getContentLengthLong() > maxDownloadBytes) {
+                    throw new IOException("遠端圖片超過大小上限 (" + connection.getContentLengthLong() + " 位元組): " + imageUrl);
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    bytes = readLimited(in, maxDownloadBytes, imageUrl);
+                }
+                downloads.incrementAndGet();
+                writeToDisk(dataFile, metaFile, imageUrl, bytes,
+                        connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+            } else {
+                throw new IOException("下載圖片失敗，HTTP " + status + ": " + imageUrl);
+            }
+        } catch (IOException e) {
+            if (meta == null) {
+                throw e;
+            }
+            // 遠端不可用時退回磁碟上的舊副本
+            log.warn("重新驗證圖片失敗，使用快取副本: {} ({})", imageUrl, e.getMessage());
+            staleServed.incrementAndGet();
+            bytes = Files.readAllBytes(dataFile);
+        } finally {
+            connection.disconnect();
+        }
+        
+        Artwork artwork = Artwork.of(imageUrl, bytes);
+        memoryPut(imageUrl, Entry.of(artwork, 0));
+        return artwork;
+    }
+
+    /**
+     * 讀取至多指定位元組數，超過時拋出異常 (不依賴 Content-Length，無長度或長度不實的回應同樣受限)
+     */
+    private static byte[] readLimited(InputStream in, long maxBytes, String source) throws IOException {
+        int limit = (int) Math.min(maxBytes, Integer.MAX_VALUE - 8);
+        byte[] bytes = in.readNBytes(limit + 1);
+        if (bytes.length > limit) {
+            throw new IOException("圖片超過大小上限 (" + maxBytes + " 位元組): " + source);
+        }
+        return bytes;
+    }
+
+    /**
+     * 等待其他執行緒的載入結果
+     */
+    private Artwork await(CompletableFuture<Artwork> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待圖片載入被中斷", e);
+        }
+    }
+
+    /**
+     * 讀取磁碟快取的中繼資料
+     */
+    private Properties readMeta(Path metaFile) {
+        Properties meta = new Properties();
+        if (Files.exists(metaFile)) {
+            try (InputStream in = Files.newInputStream(metaFile)) {
+                meta.load(in);
+            } catch (IOException e) {
+                log.warn("讀取插圖快取中繼資料失敗: {} ({})", metaFile, e.getMessage());
+            }
+        }
+        return meta;
+    }
+
+    /**
+     * 寫入磁碟快取 (先寫暫存檔再原子性替換)
+     */
+    private void writeToDisk(Path dataFile, Path metaFile, String url, byte[] bytes,
+                             String etag, String lastModified) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path tempData = Files.createTempFile(cacheDir, "artwork", ".tmp");
+            Files.write(tempData, bytes);
+            Files.move(tempData, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            Properties meta = new Properties();
+            meta.setProperty("url", url);
+            if (etag != null) meta.setProperty("etag", etag);
+            if (lastModified != null) meta.setProperty("last-modified", lastModified);
+            Path tempMeta = Files.createTempFile(cacheDir, "artwork", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempMeta)) {
+                meta.store(out, null);
+            }
+            Files.move(tempMeta, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("寫入插圖快取失敗: {} ({})", url, e.getMessage());
+        }
+    }
+
+    /**
+     * 讀取記憶體層
+     */
+    private Entry memoryGet(String source) {
+        synchronized (memoryCache) {
+            return memoryCache.get(source);
+        }
+    }
+
+    /**
+     * 讀取驗證資訊索引
+     */
+    private Validator validatorGet(String source) {
+        synchronized (validators) {
+            return validators.get(source);
+        }
+    }
+
+    /**
+     * 寫入記憶體層，超出容量時淘汰最久未使用的項目
+     * 驗證資訊另行記錄，不受原始位元組淘汰影響
+     */
+    private void memoryPut(String source, Entry entry) {
+        synchronized (validators) {
+            validators.put(source, entry.validator());
+            if (validators.size() > MAX_VALIDATORS) {
+                Iterator<String> it = validators.keySet().iterator();
+                it.next();
+                it.remove();
+            }
+        }
+        
+        long weight = entry.weight();
+        if (weight > maxMemoryBytes) {
+            return;
+        }
+        
+        synchronized (memoryCache) {
+            Entry previous = memoryCache.put(source, entry);
+            if (previous != null) {
+                memoryBytes -= previous.weight();
+            }
+            memoryBytes += weight;
+            
+            Iterator<Map.Entry<String, Entry>> it = memoryCache.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+                memoryBytes -= it.next().getValue().weight();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 計算SHA-256十六進位字串
+     */
+    private static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 計算SHA-256十六進位字串
+     */
+    static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 記憶體快取項目
+     */
+    private record Entry(Artwork artwork, Validator validator) {
+        static Entry of(Artwork artwork, long version) {
+            return new Entry(artwork, new Validator(artwork.digest(), version, System.currentTimeMillis()));
+        }
+        
+        long version() {
+            return validator.version();
+        }
+        
+        long weight() {
+            return artwork.bytes().length;
+        }
+    }
+
+    /**
+     * 內容摘要及驗證資訊
+     * version：本地檔案的修改時間；validatedAt：最後一次確認內容有效的時間
+     */
+    private record Validator(String digest, long version, long validatedAt) {
+    }
+
+    /**
+     * 插圖原始內容
+     * digest 為內容的SHA-256，可作為衍生圖片與其他快取的鍵
+     */
+    public record Artwork(String source, byte[] bytes, String digest) {
+        static Artwork of(String source, byte[] bytes) {
+            return new Artwork(source, bytes, sha256Hex(bytes));
+        }
+    }
+
+    /**
+     * 快取統計快照
+     */
+    public record Stats(long hits, long coalesced, long downloads, long revalidations, long staleServed,
+                        long evictions, int entries, long memoryBytes, long memoryLimitBytes) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 卡片插圖預取器
+ * 批量開始渲染前，先擷取所有不重複的插圖來源並平行載入至插圖快取，
+ * 讓渲染工作執行緒不必在網路I/O上等待。
+ * 同一主機的來源分散為固定數量的序列任務；對單一主機的同時下載數另以全域的每主機許可限制，
+ * 多個批量同時預取或計算摘要時合計也不超過上限
+ */
+@Component
+public class ArtworkPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ArtworkPrefetcher.class);
+    
+    // 本地檔案的主機分組鍵
+    private static final String LOCAL_HOST = "";
+    
+    @Value("${tcg.artwork.prefetch.threads:16}")
+    private int prefetchThreads;
+    
+    @Value("${tcg.artwork.prefetch.per-host:4}")
+    private int perHostConcurrency;
+    
+    private final ArtworkCache artworkCache;
+    
+    // 每個遠端主機的下載許可 (所有預取與摘要計算共用)
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    
+    private ExecutorService prefetchExecutor;
+
+    public ArtworkPrefetcher(ArtworkCache artworkCache) {
+        this.artworkCache = artworkCache;
+    }
+
+    /**
+     * 初始化預取工作池
+     */
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        prefetchExecutor = Executors.newFixedThreadPool(prefetchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "artwork-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 關閉預取工作池
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        prefetchExecutor.shutdownNow();
+        prefetchExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 非同步預取卡片插圖
+     * 渲染端不需等待此結果：正在下載的來源會由插圖快取合併為同一個請求
+     * 
+     * @param cards 卡片數據
+     * @return 全部來源處理完成時完成的Future (個別來源失敗不會使其失敗)
+     */
+    public CompletableFuture<Void> prefetch(Collection<TcgCard> cards) {
+        Map<String, List<String>> sourcesByHost = groupByHost(cards);
+        if (sourcesByHost.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        long startTime = System.currentTimeMillis();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        
+        for (List<String> sources : sourcesByHost.values()) {
+            // 每個主機最多 perHostConcurrency 條序列任務
+            int laneCount = Math.min(perHostConcurrency, sources.size());
+            for (int lane = 0; lane < laneCount; lane++) {
+                List<String> laneSources = new ArrayList<>();
+                for (int i = lane; i < sources.size(); i += laneCount) {
+                    laneSources.add(sources.get(i));
+                }
+                lanes.add(CompletableFuture.runAsync(() -> {
+                    for (String source : laneSources) {
+                        if (Thread.currentThread().isInterrupted()) return;
+                        try {
+                            load(source);
+                            loaded.incrementAndGet();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            log.debug("預取插圖失敗: {} ({})", source, e.getMessage());
+                        }
+                    }
+                }, prefetchExecutor));
+            }
+        }
+        
+        return CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> log.info("插圖預取完成: 成功 {}，失敗 {}，主機 {} 個，耗時 {} ms",
+                        loaded.get(), failed.get(), sourcesByHost.size(), System.currentTimeMillis() - startTime));
+    }
+
+    /**
+     * 非同步載入單一插圖並取得內容雜湊，摘要已知時直接完成
+     * 
+     * @param source 插圖來源
+     * @return 內容雜湊 (SHA-256) 的Future，無法載入時以異常完成
+     */
+    public CompletableFuture<String> digest(String source) {
+        String cached = artworkCache.cachedDigest(source);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(source).digest();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, prefetchExecutor);
+    }
+
+    /**
+     * 在該主機的下載許可內載入插圖 (本地檔案不受限)
+     */
+    private ArtworkCache.Artwork load(String source) throws IOException {
+        String host = hostOf(source);
+        if (LOCAL_HOST.equals(host)) {
+            return artworkCache.load(source);
+        }
+        
+        Semaphore permits = hostPermits.computeIfAbsent(host, h -> new Semaphore(perHostConcurrency));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待下載許可被中斷: " + source, e);
+        }
+        try {
+            return artworkCache.load(source);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 同一主機的同時載入數上限
+     */
+    public int getPerHostConcurrency() {
+        return perHostConcurrency;
+    }
+
+    /**
+     * 擷取不重複的插圖來源並依主機分組
+     */
+    private Map<String, List<String>> groupByHost(Collection<TcgCard> cards) {
+        Set<String> sources = new LinkedHashSet<>();
+        for (TcgCard card : cards) {
+            String imageUrl = card.getImageUrl();
+            if (imageUrl != null && !imageUrl.trim().isEmpty()) {
+                sources.add(imageUrl);
+            }
+        }
+        
+        Map<String, List<String>> byHost = new LinkedHashMap<>();
+        for (String source : sources) {
+            byHost.computeIfAbsent(hostOf(source), host -> new ArrayList<>()).add(source);
+        }
+        return byHost;
+    }
+
+    /**
+     * 取得來源的主機名稱
+     */
+    private static String hostOf(String source) {
+        if (ArtworkCache.isLocalFilePath(source)) {
+            return LOCAL_HOST;
+        }
+        try {
+            String host = URI.create(source).getHost();
+            return host != null ? host : LOCAL_HOST;
+        } catch (IllegalArgumentException e) {
+            return LOCAL_HOST;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 卡片字體註冊表
+ * 啟動時解析一次支援中文的字體，並預先衍生各用途的字體大小，
+ * 避免每張卡片重複列舉系統字體與衍生字體
+ */
+@Component
+public class CardFontRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CardFontRegistry.class);
+    
+    // 字體偏好順序，依序選用第一個可用的字體
+    @Value("${tcg.font.preferred:Microsoft JhengHei,Microsoft YaHei,SimHei,NSimSun,SimSun,Dialog,SansSerif}")
+    private String[] preferredFonts;
+    
+    // 選填的內建TTF字體路徑 (支援 classpath: 與 file: 前綴)，優先於系統字體
+    @Value("${tcg.font.file:}")
+    private String fontFile;
+    
+    private final ResourceLoader resourceLoader;
+    
+    private Font baseFont;
+    private Font nameFont;
+    private Font typeFont;
+    private Font statsFont;
+    private Font descriptionFont;
+    private Font placeholderFont;
+
+    public CardFontRegistry(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * 解析基礎字體並衍生各用途字體
+     */
+    @PostConstruct
+    void init() {
+        baseFont = resolveBaseFont();
+        
+        nameFont = baseFont.deriveFont(Font.BOLD, 24f);
+        typeFont = baseFont.deriveFont(Font.PLAIN, 18f);
+        statsFont = baseFont.deriveFont(Font.BOLD, 20f);
+        descriptionFont = baseFont.deriveFont(Font.PLAIN, 14f);
+        placeholderFont = baseFont.deriveFont(Font.PLAIN, 18f);
+        
+        log.info("卡片字體已載入: {}", baseFont.getFontName());
+    }
+
+    // Getters
+    public Font getBaseFont() { return baseFont; }
+    public Font getNameFont() { return nameFont; }
+    public Font getTypeFont() { return typeFont; }
+    public Font getStatsFont() { return statsFont; }
+    public Font getDescriptionFont() { return descriptionFont; }
+    public Font getPlaceholderFont() { return placeholderFont; }
+
+    /**
+     * 解析基礎字體：內建字體檔優先，其次為偏好清單中第一個可用的系統字體
+     */
+    private Font resolveBaseFont() {
+        if (fontFile != null && !fontFile.isBlank()) {
+            try {
+                return loadFontFile(fontFile.trim());
+            } catch (IOException | FontFormatException e) {
+                log.warn("載入字體檔失敗，改用系統字體: {} ({})", fontFile, e.getMessage());
+            }
+        }
+        
+        GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+        Set<String> availableFonts = new HashSet<>(Arrays.asList(ge.getAvailableFontFamilyNames()));
+        
+        for (String fontName : preferredFonts) {
+            String name = fontName.trim();
+            if (availableFonts.contains(name)) {
+                return new Font(name, Font.PLAIN, 16);
+            }
+        }
+        
+        return new Font("Dialog", Font.PLAIN, 16);
+    }
+
+    /**
+     * 載入TTF字體檔並註冊至圖形環境
+     */
+    private Font loadFontFile(String location) throws IOException, FontFormatException {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            Font font = Font.createFont(Font.TRUETYPE_FONT, in).deriveFont(Font.PLAIN, 16f);
+            GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(font);
+            return font;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 卡片圖片編碼器
+ * 依 tcg.image.format 選擇輸出格式：
+ * - PNG 使用內建編碼器，預覽與封存可分別設定壓縮等級及濾波方式
+ * - 其他格式 (如 JPEG) 使用 ImageIO，支援壓縮時套用 tcg.image.quality
+ */
+@Component
+public class CardImageEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CardImageEncoder.class);
+
+    private static final String PNG = "png";
+    private static final ImageTypeSpecifier CANVAS_TYPE =
+            ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_INT_RGB);
+
+    /**
+     * 編碼用途
+     */
+    public enum Profile {
+        // 單張預覽：速度優先
+        PREVIEW,
+        // 批量封存：檔案大小優先
+        ARCHIVE
+    }
+
+    private final String format;
+    private final String contentType;
+    private final String fileExtension;
+    private final float quality;
+    private final int previewLevel;
+    private final PngEncoder.Filter previewFilter;
+    private final int archiveLevel;
+    private final PngEncoder.Filter archiveFilter;
+
+    public CardImageEncoder(@Value("${tcg.image.format:PNG}") String format,
+                            @Value("${tcg.image.quality:95}") int quality,
+                            @Value("${tcg.image.png.preview-level:1}") int previewLevel,
+                            @Value("${tcg.image.png.preview-filter:SUB}") PngEncoder.Filter previewFilter,
+                            @Value("${tcg.image.png.archive-level:6}") int archiveLevel,
+                            @Value("${tcg.image.png.archive-filter:ADAPTIVE}") PngEncoder.Filter archiveFilter) {
+        String requested = format.trim().toLowerCase(Locale.ROOT);
+        ImageWriterSpi spi = PNG.equals(requested) ? null : findWriterSpi(requested);
+        if (!PNG.equals(requested) && spi == null) {
+            log.warn("不支援的圖片格式 {}，改用PNG", format);
+        }
+
+        if (spi == null) {
+            this.format = PNG;
+            this.contentType = "image/png";
+            this.fileExtension = PNG;
+        } else {
+            this.format = requested;
+            this.contentType = spi.getMIMETypes()[0];
+            this.fileExtension = spi.getFileSuffixes()[0];
+        }
+        this.quality = Math.max(0, Math.min(100, quality)) / 100f;
+        this.previewLevel = previewLevel;
+        this.previewFilter = previewFilter;
+        this.archiveLevel = archiveLevel;
+        this.archiveFilter = archiveFilter;
+        log.info("卡片圖片輸出格式: {} ({})", this.format.toUpperCase(Locale.ROOT), variant(Profile.ARCHIVE));
+    }
+
+    /**
+     * 建立編碼工作階段 (重複使用編碼器及輸出緩衝區，非執行緒安全)
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * 編碼設定識別字串，納入渲染快取鍵
+     */
+    public String variant(Profile profile) {
+        if (!PNG.equals(format)) {
+            return format + "-q" + Math.round(quality * 100);
+        }
+        return profile == Profile.PREVIEW
+                ? PNG + "-" + previewLevel + "-" + previewFilter
+                : PNG + "-" + archiveLevel + "-" + archiveFilter;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * 可用的輸出格式 (PNG 及可寫出RGB圖片的 ImageIO 格式)
+     */
+    public String[] getSupportedFormats() {
+        Set<String> formats = new LinkedHashSet<>();
+        formats.add("PNG");
+        Arrays.stream(ImageIO.getWriterFormatNames())
+                .map(name -> name.toUpperCase(Locale.ROOT))
+                .sorted()
+                .filter(name -> ImageIO.getImageWriters(CANVAS_TYPE, name).hasNext())
+                .forEach(formats::add);
+        return formats.toArray(String[]::new);
+    }
+
+    /**
+     * 尋找可寫出RGB畫布的 ImageIO 編碼器
+     */
+    private static ImageWriterSpi findWriterSpi(String format) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWriters(CANVAS_TYPE, format);
+        return writers.hasNext() ? writers.next().getOriginatingProvider() : null;
+    }
+
+    /**
+     * 編碼工作階段
+     * 同一時間只由一個執行緒使用；輸出緩衝區保留上次編碼的容量
+     */
+    public final class Session {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+        private PngEncoder previewEncoder;
+        private PngEncoder archiveEncoder;
+        private ImageWriter writer;
+        private ImageWriteParam writeParam;
+
+        private Session() {
+        }
+
+        /**
+         * 編碼圖片
+         *
+         * @return 編碼後的位元組 (只複製結果)
+         */
+        public byte[] encode(BufferedImage image, Profile profile) throws IOException {
+            buffer.reset();
+            if (PNG.equals(format)) {
+                pngEncoder(profile).encode(image, buffer);
+            } else {
+                writeWithImageIO(image);
+            }
+            return buffer.toByteArray();
+        }
+
+        /**
+         * 釋放編碼器資源
+         */
+        public void dispose() {
+            if (previewEncoder != null) previewEncoder.dispose();
+            if (archiveEncoder != null) archiveEncoder.dispose();
+            if (writer != null) writer.dispose();
+        }
+
+        private PngEncoder pngEncoder(Profile profile) {
+            if (profile == Profile.PREVIEW) {
+                if (previewEncoder == null) {
+                    previewEncoder = new PngEncoder(previewLevel, previewFilter);
+                }
+                return previewEncoder;
+            }
+            if (archiveEncoder == null) {
+                archiveEncoder = new PngEncoder(archiveLevel, archiveFilter);
+            }
+            return archiveEncoder;
+        }
+
+        private void writeWithImageIO(BufferedImage image) throws IOException {
+            if (writer == null) {
+                writer = ImageIO.getImageWriters(CANVAS_TYPE, format).next();
+                writeParam = writer.getDefaultWriteParam();
+                if (writeParam.canWriteCompressed()) {
+                    writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    if (writeParam.getCompressionType() == null) {
+                        writeParam.setCompressionType(writeParam.getCompressionTypes()[0]);
+                    }
+                    writeParam.setCompressionQuality(quality);
+                }
+            }
+
+            try (ImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), writeParam);
+            } finally {
+                writer.setOutput(null);
+            }
+        }
+    }
+}
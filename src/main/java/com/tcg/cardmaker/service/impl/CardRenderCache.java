@@ -0,0 +1,342 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * 已渲染卡片快取
+ * 以卡片所有欄位、插圖內容摘要與渲染器版本的雜湊值為鍵，快取編碼後的圖片：
+ * - 記憶體層：依總位元組數限制大小的LRU
+ * - 磁碟層 (選用)：存放於輸出目錄下，重啟後仍可命中；依總位元組數限制大小，淘汰最久未存取的檔案
+ * 
+ * 插圖以內容摘要而非網址區分，網址相同但內容變更時自然不會命中舊圖
+ */
+@Component
+public class CardRenderCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CardRenderCache.class);
+    
+    // 欄位分隔字元，避免不同欄位組合產生相同雜湊輸入
+    private static final char FIELD_SEPARATOR = '\u001F';
+    
+    @Value("${tcg.render.cache.memory-size:64MB}")
+    private DataSize memorySize;
+    
+    @Value("${tcg.render.cache.disk-enabled:false}")
+    private boolean diskEnabled;
+    
+    @Value("${tcg.render.cache.disk-size:512MB}")
+    private DataSize diskSize;
+    
+    @Value("${tcg.card.output-dir:./output/cards}")
+    private String outputDir;
+    
+    // 記憶體LRU (存取順序)
+    private final LinkedHashMap<String, byte[]> memoryCache = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+    
+    // 磁碟層索引：鍵 → 檔案大小 (存取順序)，啟動時依檔案修改時間 (即最後存取時間) 重建
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(256, 0.75f, true);
+    private long diskBytes;
+    
+    // 統計計數
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    /**
+     * 依磁碟上既有的快取檔建立索引，超出容量時立即淘汰
+     */
+    @PostConstruct
+    void loadDiskIndex() {
+        if (!diskEnabled) {
+            return;
+        }
+        Path cacheDir = Paths.get(outputDir, "cache");
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+        List<DiskFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(cacheDir, 2)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(".bin")).forEach(path -> {
+                try {
+                    files.add(new DiskFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+                } catch (IOException e) {
+                    log.debug("略過無法讀取的渲染快取檔: {} ({})", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("讀取渲染快取目錄失敗: {} ({})", cacheDir, e.getMessage());
+            return;
+        }
+        
+        files.sort(Comparator.comparingLong(DiskFile::lastAccess));
+        synchronized (diskIndex) {
+            for (DiskFile file : files) {
+                String name = file.path().getFileName().toString();
+                diskIndex.put(name.substring(0, name.length() - ".bin".length()), file.size());
+                diskBytes += file.size();
+            }
+            evictFromDisk();
+        }
+        log.info("渲染磁碟快取: {} 個檔案，{} 位元組 (上限 {})", diskIndex.size(), diskBytes, diskSize.toBytes());
+    }
+
+    /**
+     * 計算卡片快取鍵
+     * 
+     * @param card 卡片數據
+     * @param artworkDigest 插圖內容摘要，無插圖時為空字串
+     * @param variant 渲染器版本及輸出變體 (格式、尺寸等)
+     * @return SHA-256 十六進位字串
+     */
+    public static String keyOf(TcgCard card, String artworkDigest, String variant) {
+        String fields = keyOf(card, variant) + FIELD_SEPARATOR + artworkDigest;
+        return sha256Hex(fields.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 計算卡片欄位雜湊 (插圖僅以網址表示，不含其內容)
+     * 
+     * @param card 卡片數據
+     * @param variant 渲染器版本及輸出變體 (格式、尺寸等)
+     * @return SHA-256 十六進位字串
+     */
+    public static String keyOf(TcgCard card, String variant) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(variant).append(FIELD_SEPARATOR)
+          .append(card.getName()).append(FIELD_SEPARATOR)
+          .append(card.getType()).append(FIELD_SEPARATOR)
+          .append(card.getRarity()).append(FIELD_SEPARATOR)
+          .append(card.getAttack()).append(FIELD_SEPARATOR)
+          .append(card.getDefense()).append(FIELD_SEPARATOR)
+          .append(card.getCost()).append(FIELD_SEPARATOR)
+          .append(card.getDescription()).append(FIELD_SEPARATOR)
+          .append(card.getImageUrl()).append(FIELD_SEPARATOR)
+          .append(card.getBackgroundStyle()).append(FIELD_SEPARATOR)
+          .append(card.getBorderColor()).append(FIELD_SEPARATOR)
+          .append(card.getExtraProperties());
+        return sha256Hex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 查詢快取，依序檢查記憶體層與磁碟層
+     * 回傳的陣列為共用實例，呼叫端不可修改
+     * 
+     * @param key 快取鍵
+     * @return 圖片位元組，未命中時回傳 null
+     */
+    public byte[] get(String key) {
+        byte[] bytes;
+        synchronized (memoryCache) {
+            bytes = memoryCache.get(key);
+        }
+        if (bytes != null) {
+            memoryHits.incrementAndGet();
+            return bytes;
+        }
+        
+        if (diskEnabled) {
+            bytes = readFromDisk(key);
+            if (bytes != null) {
+                diskHits.incrementAndGet();
+                touchOnDisk(key);
+                putInMemory(key, bytes);
+                return bytes;
+            }
+        }
+        
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 寫入快取
+     * 
+     * @param key 快取鍵
+     * @param bytes 圖片位元組
+     */
+    public void put(String key, byte[] bytes) {
+        putInMemory(key, bytes);
+        if (diskEnabled) {
+            writeToDisk(key, bytes);
+        }
+    }
+
+    /**
+     * 取得快取統計
+     */
+    public Stats getStats() {
+        synchronized (memoryCache) {
+            synchronized (diskIndex) {
+                return new Stats(memoryHits.get(), diskHits.get(), misses.get(), evictions.get(),
+                        memoryCache.size(), memoryBytes, memorySize.toBytes(), diskEnabled,
+                        diskEvictions.get(), diskIndex.size(), diskBytes, diskSize.toBytes());
+            }
+        }
+    }
+
+    /**
+     * 寫入記憶體層，超出容量時淘汰最久未使用的項目
+     */
+    private void putInMemory(String key, byte[] bytes) {
+        long maxBytes = memorySize.toBytes();
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        
+        synchronized (memoryCache) {
+            byte[] previous = memoryCache.put(key, bytes);
+            if (previous != null) {
+                memoryBytes -= previous.length;
+            }
+            memoryBytes += bytes.length;
+            
+            Iterator<Map.Entry<String, byte[]>> it = memoryCache.entrySet().iterator();
+            while (memoryBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, byte[]> eldest = it.next();
+                memoryBytes -= eldest.getValue().length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 從磁碟層讀取
+     */
+    private byte[] readFromDisk(String key) {
+        Path path = diskPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            log.warn("讀取渲染快取失敗: {} ({})", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 寫入磁碟層 (先寫暫存檔再原子性替換，避免讀到不完整的檔案)
+     */
+    private void writeToDisk(String key, byte[] bytes) {
+        if (bytes.length > diskSize.toBytes()) {
+            return;
+        }
+        Path path = diskPath(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path tempFile = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.write(tempFile, bytes);
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("寫入渲染快取失敗: {} ({})", path, e.getMessage());
+            return;
+        }
+        
+        synchronized (diskIndex) {
+            Long previous = diskIndex.put(key, (long) bytes.length);
+            if (previous != null) {
+                diskBytes -= previous;
+            }
+            diskBytes += bytes.length;
+            evictFromDisk();
+        }
+    }
+
+    /**
+     * 記錄磁碟層的存取 (同時更新檔案修改時間，重啟後仍保留存取順序)
+     */
+    private void touchOnDisk(String key) {
+        synchronized (diskIndex) {
+            if (diskIndex.get(key) == null) {
+                return;
+            }
+        }
+        try {
+            Files.setLastModifiedTime(diskPath(key), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("更新渲染快取存取時間失敗: {} ({})", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 超出磁碟容量時刪除最久未存取的檔案 (呼叫端須持有 diskIndex 鎖)
+     */
+    private void evictFromDisk() {
+        Iterator<Map.Entry<String, Long>> it = diskIndex.entrySet().iterator();
+        while (diskBytes > diskSize.toBytes() && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            diskBytes -= eldest.getValue();
+            diskEvictions.incrementAndGet();
+            try {
+                Files.deleteIfExists(diskPath(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("刪除渲染快取失敗: {} ({})", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 磁碟快取路徑，以鍵的前兩碼分散子目錄
+     */
+    private Path diskPath(String key) {
+        return Paths.get(outputDir, "cache", key.substring(0, 2), key + ".bin");
+    }
+
+    /**
+     * 計算SHA-256十六進位字串
+     */
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 快取統計快照
+     */
+    public record Stats(long memoryHits, long diskHits, long misses, long evictions,
+                        int entries, long memoryBytes, long memoryLimitBytes, boolean diskEnabled,
+                        long diskEvictions, int diskEntries, long diskBytes, long diskLimitBytes) {
+    }
+
+    /**
+     * 啟動時掃描到的快取檔
+     */
+    private record DiskFile(Path path, long size, long lastAccess) {
+    }
+}
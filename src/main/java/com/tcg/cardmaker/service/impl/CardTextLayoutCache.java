@@ -0,0 +1,99 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 卡片文字排版快取
+ * 以 LineBreakMeasurer 搭配 BreakIterator 斷行，中文等無空白的文字也能在字元間換行；
+ * 排版結果依 (文字, 字體, 寬度) 快取，同一系列卡片共用的規則文字只需排版一次
+ */
+@Component
+public class CardTextLayoutCache {
+
+    private static final Pattern LINE_SEPARATOR = Pattern.compile("\\R");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int maxEntries;
+
+    // 排版結果LRU (存取順序)
+    private final LinkedHashMap<LayoutKey, List<TextLayout>> layouts = new LinkedHashMap<>(64, 0.75f, true);
+
+    public CardTextLayoutCache(@Value("${tcg.render.text-layout-cache-size:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 取得換行後的各行排版
+     *
+     * @param text 文字，換行字元視為段落分隔，段落內的連續空白合併為一個
+     * @param font 字體
+     * @param frc 繪製目標的字體渲染上下文
+     * @param maxWidth 每行最大寬度
+     * @return 各行排版 (共用且不可修改)
+     */
+    public List<TextLayout> layout(String text, Font font, FontRenderContext frc, int maxWidth) {
+        LayoutKey key = new LayoutKey(text, font, frc, maxWidth);
+        synchronized (layouts) {
+            List<TextLayout> cached = layouts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 在鎖外排版，同一鍵同時排版時以先完成者為準
+        List<TextLayout> lines = breakLines(text, font, frc, maxWidth);
+        synchronized (layouts) {
+            List<TextLayout> existing = layouts.putIfAbsent(key, lines);
+            if (existing != null) {
+                return existing;
+            }
+
+            Iterator<LayoutKey> it = layouts.keySet().iterator();
+            while (layouts.size() > maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 逐段以 LineBreakMeasurer 斷行，每行只量測一次
+     */
+    private static List<TextLayout> breakLines(String text, Font font, FontRenderContext frc, int maxWidth) {
+        List<TextLayout> lines = new ArrayList<>();
+        for (String paragraph : LINE_SEPARATOR.split(text)) {
+            String normalized = WHITESPACE.matcher(paragraph.strip()).replaceAll(" ");
+            if (normalized.isEmpty()) {
+                continue;
+            }
+
+            AttributedString attributed = new AttributedString(normalized, Map.of(TextAttribute.FONT, font));
+            LineBreakMeasurer measurer = new LineBreakMeasurer(attributed.getIterator(), frc);
+            while (measurer.getPosition() < normalized.length()) {
+                lines.add(measurer.nextLayout(maxWidth));
+            }
+        }
+        return List.copyOf(lines);
+    }
+
+    /**
+     * 排版快取鍵
+     */
+    private record LayoutKey(String text, Font font, FontRenderContext frc, int maxWidth) {
+    }
+}
@@ -0,0 +1,374 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+/**
+ * RFC 4180 CSV卡片讀取器
+ * 直接在可重複使用的字元緩衝區上切分欄位，欄位只記錄起訖位置：
+ * - 支援引號欄位、跳脫引號 ("") 及引號內的換行
+ * - 只為 TcgCard 保留的欄位建立字串，數值欄位直接由字元解析
+ * - 每列除卡片本身及其字串欄位外幾乎不配置記憶體
+ */
+final class CsvCardReader implements Iterator<TcgCard>, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvCardReader.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_FIELD_CAPACITY = 16;
+
+    // 卡片必要欄位數 (名稱至費用)
+    private static final int REQUIRED_FIELDS = 6;
+
+    // 卡片使用的欄位數 (A-J欄)，其後的欄位不建立字串
+    private static final int CARD_FIELDS = 10;
+
+    private final Reader reader;
+
+    // 字元緩衝區：[recordStart, limit) 為目前紀錄已讀入的內容
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int recordStart;
+    private boolean endOfInput;
+
+    // 目前紀錄各欄位在緩衝區中的位置
+    private int[] fieldStart = new int[INITIAL_FIELD_CAPACITY];
+    private int[] fieldEnd = new int[INITIAL_FIELD_CAPACITY];
+    private boolean[] fieldEscaped = new boolean[INITIAL_FIELD_CAPACITY];
+    private int fieldCount;
+    private int currentFieldStart;
+    private long recordNumber;
+
+    private TcgCard nextCard;
+
+    /**
+     * @param reader 來源 (由本讀取器負責關閉)
+     * @param skipHeader 是否跳過第一筆紀錄 (標題行)
+     */
+    CsvCardReader(Reader reader, boolean skipHeader) throws IOException {
+        this.reader = reader;
+        if (skipHeader) {
+            readRecord();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextCard == null) {
+            try {
+                nextCard = readCard();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextCard != null;
+    }
+
+    @Override
+    public TcgCard next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TcgCard card = nextCard;
+        nextCard = null;
+        return card;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 讀取下一張有效卡片，略過空行、欄位不足及無效的紀錄
+     *
+     * @return 卡片，輸入結束時回傳 null
+     */
+    private TcgCard readCard() throws IOException {
+        while (readRecord()) {
+            if (fieldCount == 1 && fieldStart[0] == fieldEnd[0]) {
+                continue; // 空行
+            }
+            if (fieldCount < REQUIRED_FIELDS) {
+                log.warn("CSV第 {} 筆紀錄欄位不足: {} 個欄位", recordNumber, fieldCount);
+                continue;
+            }
+
+            TcgCard card = new TcgCard();
+            card.setName(stringField(0));
+            card.setType(stringField(1));
+            card.setRarity(stringField(2));
+            card.setAttack(intField(3));
+            card.setDefense(intField(4));
+            card.setCost(intField(5));
+
+            // 選填欄位
+            if (fieldCount > 6) card.setDescription(stringField(6));
+            if (fieldCount > 7) card.setImageUrl(stringField(7));
+            if (fieldCount > 8) card.setBackgroundStyle(stringField(8));
+            if (fieldCount > 9) card.setBorderColor(stringField(9));
+
+            if (card.isValid()) {
+                return card;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 讀取下一筆紀錄的欄位位置
+     *
+     * @return 是否讀到紀錄
+     */
+    private boolean readRecord() throws IOException {
+        fieldCount = 0;
+        recordStart = position;
+        if (peek() < 0) {
+            return false;
+        }
+        recordNumber++;
+
+        while (true) {
+            int c = peek();
+            boolean escaped = false;
+            int end;
+
+            if (c == '"') {
+                // 引號欄位：直到單獨的引號為止，"" 為跳脫的引號
+                position++;
+                currentFieldStart = position;
+                while (true) {
+                    if (!scanTo('"')) {
+                        end = position; // 引號未結束
+                        break;
+                    }
+                    position++;
+                    if (peek() == '"') {
+                        escaped = true;
+                        position++;
+                    } else {
+                        end = position - 1;
+                        break;
+                    }
+                }
+                // 略過結束引號與分隔符號之間的多餘字元 (補充緩衝區可能移動位置，以長度記錄)
+                int length = end - currentFieldStart;
+                scanToDelimiter();
+                end = currentFieldStart + length;
+            } else {
+                currentFieldStart = position;
+                scanToDelimiter();
+                end = position;
+            }
+
+            addField(currentFieldStart, end, escaped);
+
+            c = peek();
+            if (c == ',') {
+                position++;
+                continue;
+            }
+            if (c == '\r') {
+                position++;
+                if (peek() == '\n') {
+                    position++;
+                }
+            } else if (c == '\n') {
+                position++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 直接在緩衝區上前進到下一個分隔符號 (逗號或換行) 或輸入結束
+     */
+    private void scanToDelimiter() throws IOException {
+        do {
+            char[] buf = buffer;
+            int lim = limit;
+            int p = position;
+            while (p < lim) {
+                char c = buf[p];
+                if (c == ',' || c == '\n' || c == '\r') {
+                    position = p;
+                    return;
+                }
+                p++;
+            }
+            position = p;
+        } while (fill());
+    }
+
+    /**
+     * 直接在緩衝區上前進到指定字元
+     *
+     * @return 是否找到，輸入結束時回傳 false
+     */
+    private boolean scanTo(char target) throws IOException {
+        do {
+            char[] buf = buffer;
+            int lim = limit;
+            int p = position;
+            while (p < lim) {
+                if (buf[p] == target) {
+                    position = p;
+                    return true;
+                }
+                p++;
+            }
+            position = p;
+        } while (fill());
+        return false;
+    }
+
+    /**
+     * 查看目前位置的字元，緩衝區用盡時補充資料
+     *
+     * @return 字元，輸入結束時回傳 -1
+     */
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    /**
+     * 補充緩衝區：將目前紀錄移至開頭，空間不足時擴充
+     *
+     * @return 是否讀到新資料
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+
+        if (recordStart > 0) {
+            int shift = recordStart;
+            System.arraycopy(buffer, recordStart, buffer, 0, limit - recordStart);
+            limit -= shift;
+            position -= shift;
+            currentFieldStart -= shift;
+            recordStart = 0;
+            for (int i = 0; i < fieldCount; i++) {
+                fieldStart[i] -= shift;
+                fieldEnd[i] -= shift;
+            }
+        } else if (limit == buffer.length) {
+            char[] larger = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        }
+
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * 記錄欄位位置
+     */
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStart.length) {
+            int capacity = fieldCount * 2;
+            fieldStart = Arrays.copyOf(fieldStart, capacity);
+            fieldEnd = Arrays.copyOf(fieldEnd, capacity);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, capacity);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    /**
+     * 建立去除前後空白的欄位字串
+     */
+    private String stringField(int index) {
+        if (index >= CARD_FIELDS || index >= fieldCount) {
+            return null;
+        }
+
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        while (start < end && buffer[start] <= ' ') start++;
+        while (end > start && buffer[end - 1] <= ' ') end--;
+
+        if (start == end) {
+            return "";
+        }
+        if (!fieldEscaped[index]) {
+            return new String(buffer, start, end - start);
+        }
+
+        // 還原跳脫的引號
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = buffer[i];
+            sb.append(c);
+            if (c == '"' && i + 1 < end && buffer[i + 1] == '"') {
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 直接由字元解析整數欄位，空欄位為 0，格式錯誤時記錄警告並回傳 0
+     * 含小數點的數值捨去小數部分 (與XLSX的 parseNumericText 一致，例如 "5.0" 為 5)
+     */
+    private Integer intField(int index) {
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        while (start < end && buffer[start] <= ' ') start++;
+        while (end > start && buffer[end - 1] <= ' ') end--;
+
+        if (start == end) {
+            return 0;
+        }
+
+        boolean negative = buffer[start] == '-';
+        int i = negative || buffer[start] == '+' ? start + 1 : start;
+        long value = 0;
+        boolean valid = i < end;
+        for (; i < end && valid; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                valid = false;
+            } else {
+                value = value * 10 + (c - '0');
+                valid = value <= (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE);
+            }
+        }
+
+        if (!valid) {
+            String text = new String(buffer, start, end - start);
+            if (text.indexOf('.') >= 0) {
+                try {
+                    return (int) Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    // 非數值，記錄警告
+                }
+            }
+            log.warn("數字格式錯誤: {}", text);
+            return 0;
+        }
+        return (int) (negative ? -value : value);
+    }
+}
@@ -1,24 +1,39 @@
 package com.tcg.cardmaker.service.impl;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.annotation.PreDestroy;
+
 import com.tcg.cardmaker.model.TcgCard;
 import com.tcg.cardmaker.service.interfaces.FileParserService;
 
@@ -33,21 +48,100 @@ public class ExcelFileParserService implements FileParserService {
     private static final Logger log = LoggerFactory.getLogger(ExcelFileParserService.class);
     
     private static final String[] SUPPORTED_EXTENSIONS = {"xlsx", "xls", "csv"};
+    
+    // 卡片欄位數 (A-J欄)
+    private static final int CARD_COLUMN_COUNT = 10;
+    
+    // 逐筆除錯日誌的取樣間隔 (每 N 張輸出一筆)
+    private static final int DEBUG_SAMPLE_INTERVAL = 1000;
+    
+    // XLSX的SAX解析工作池 (每個開啟中的XLSX串流佔用一個執行緒)
+    private final ThreadPoolExecutor xlsxParseExecutor;
+    
+    // 串流式XLSX讀取器
+    private final StreamingXlsxRowReader xlsxRowReader;
+    
+    // 監控指標
+    private final MeterRegistry meterRegistry;
+
+    public ExcelFileParserService(@Value("${tcg.parse.xlsx.threads:4}") int xlsxThreads,
+                                  @Value("${tcg.parse.xlsx.queue-size:16}") int xlsxQueueSize,
+                                  MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        
+        AtomicInteger counter = new AtomicInteger();
+        this.xlsxParseExecutor = new ThreadPoolExecutor(xlsxThreads, xlsxThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(xlsxQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "xlsx-reader-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.xlsxRowReader = new StreamingXlsxRowReader(CARD_COLUMN_COUNT, xlsxParseExecutor);
+    }
+
+    /**
+     * 關閉XLSX解析工作池
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        xlsxParseExecutor.shutdownNow();
+        xlsxParseExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
 
     @Override
     public List<TcgCard> parseFile(MultipartFile file) throws Exception {
+        try (Stream<TcgCard> cards = streamFile(file)) {
+            return cards.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<TcgCard> streamFile(MultipartFile file) throws Exception {
         if (!isSupported(file)) {
             throw new IllegalArgumentException("不支援的檔案格式: " + file.getOriginalFilename());
         }
 
+        // 上傳串流只讀取一次：先預讀開頭判斷格式，再直接交給對應的解析器
+        Timer.Sample sample = Timer.start(meterRegistry);
+        InputStream inputStream = new BufferedInputStream(file.getInputStream());
         try {
-            return parseExcelFile(file);
+            FileFormatDetector.Detection detection = FileFormatDetector.detect(inputStream);
+            log.debug("偵測到檔案格式: {} -> {}", file.getOriginalFilename(), detection.format());
+            
+            Stream<TcgCard> cards = switch (detection.format()) {
+                case XLSX -> streamXlsxFile(inputStream);
+                case XLS -> streamXlsFile(inputStream);
+                case CSV -> streamCsvFile(inputStream, detection);
+            };
+            return withMetrics(cards, sample, detection.format().name().toLowerCase(), file.getOriginalFilename());
         } catch (IOException | RuntimeException e) {
-            log.warn("Excel解析失敗，嘗試CSV解析: {}", e.getMessage());
-            return parseCsvFile(file);
+            closeQuietly(inputStream);
+            meterRegistry.counter("tcg.parse.failures").increment();
+            throw e;
         }
     }
 
+    /**
+     * 記錄解析耗時 (開啟至串流關閉) 及解析出的卡片數
+     * 逐筆資料只以取樣的除錯日誌輸出，串流關閉時輸出一筆摘要
+     */
+    private Stream<TcgCard> withMetrics(Stream<TcgCard> cards, Timer.Sample sample, String format, String filename) {
+        AtomicLong count = new AtomicLong();
+        return cards
+                .peek(card -> {
+                    long n = count.incrementAndGet();
+                    if (n % DEBUG_SAMPLE_INTERVAL == 1 && log.isDebugEnabled()) {
+                        log.debug("解析卡片數據 (第 {} 張): {}", n, card.getName());
+                    }
+                })
+                .onClose(() -> {
+                    long nanos = sample.stop(meterRegistry.timer("tcg.parse.duration", "format", format));
+                    meterRegistry.counter("tcg.parse.cards", "format", format).increment(count.get());
+                    log.info("檔案解析完成: {} ({})，解析到 {} 張卡片，耗時 {} ms",
+                            filename, format, count.get(), TimeUnit.NANOSECONDS.toMillis(nanos));
+                });
+    }
+
     @Override
     public boolean isSupported(MultipartFile file) {
         if (file == null || file.getOriginalFilename() == null) {
@@ -88,73 +182,67 @@ public class ExcelFileParserService implements FileParserService {
     }
 
     /**
-     * 解析Excel檔案
+     * 以串流事件模型解析XLSX檔案，記憶體用量與列數無關
      */
-    private List<TcgCard> parseExcelFile(MultipartFile file) throws IOException {
-        List<TcgCard> cards = new ArrayList<>();
-        
-        try (Workbook workbook = createWorkbook(file)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = sheet.iterator();
-            
-            // 跳過標題行
-            if (rowIterator.hasNext()) {
-                rowIterator.next();
-            }
-            
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                TcgCard card = parseRowToCard(row);
-                if (card != null) {
-                    cards.add(card);
-                    log.info("解析卡片數據: {}", card.getName());
-                }
-            }
+    private Stream<TcgCard> streamXlsxFile(InputStream inputStream) throws IOException {
+        StreamingXlsxRowReader.RowIterator rows;
+        try (inputStream) {
+            rows = xlsxRowReader.open(inputStream);
         }
         
-        log.info("Excel解析完成，解析到 {} 張卡片", cards.size());
-        return cards;
+        return toStream(rows)
+                .filter(row -> row.rowNum() > 0) // 跳過標題行
+                .map(row -> parseValuesToCard(row.values()))
+                .filter(Objects::nonNull)
+                .onClose(rows::close);
     }
 
     /**
-     * 解析CSV檔案
+     * 解析XLS檔案
      */
-    private List<TcgCard> parseCsvFile(MultipartFile file) throws IOException {
-        List<TcgCard> cards = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            
-            String line;
-            boolean isFirstLine = true;
-            
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // 跳過標題行
-                }
-                
-                TcgCard card = parseCsvLineToCard(line);
-                if (card != null) {
-                    cards.add(card);
-                    log.info("解析卡片數據: {}", card.getName());
-                }
-            }
+    private Stream<TcgCard> streamXlsFile(InputStream inputStream) throws IOException {
+        Workbook workbook;
+        try (inputStream) {
+            workbook = new HSSFWorkbook(inputStream);
         }
+        Sheet sheet = workbook.getSheetAt(0);
+        
+        return toStream(sheet.iterator())
+                .skip(1) // 跳過標題行
+                .map(this::parseRowToCard)
+                .filter(Objects::nonNull)
+                .onClose(() -> closeQuietly(workbook));
+    }
+
+    /**
+     * 串流解析CSV檔案 (RFC 4180，支援引號欄位與欄位內換行)
+     */
+    private Stream<TcgCard> streamCsvFile(InputStream inputStream, FileFormatDetector.Detection detection) 
+            throws IOException {
+        inputStream.skipNBytes(detection.bomLength());
+        CsvCardReader reader = new CsvCardReader(
+                new InputStreamReader(inputStream, detection.charset()), true); // 跳過標題行
         
-        log.info("CSV解析完成，解析到 {} 張卡片", cards.size());
-        return cards;
+        return toStream(reader)
+                .onClose(() -> closeQuietly(reader));
     }
 
     /**
-     * 創建適當的Workbook實例
+     * 將迭代器包裝為循序串流
      */
-    private Workbook createWorkbook(MultipartFile file) throws IOException {
-        String fileName = file.getOriginalFilename();
-        if (fileName != null && fileName.toLowerCase().endsWith(".xls")) {
-            return new HSSFWorkbook(file.getInputStream());
-        } else {
-            return new XSSFWorkbook(file.getInputStream());
+    private static <T> Stream<T> toStream(Iterator<T> iterator) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * 關閉資源，失敗時僅記錄
+     */
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("關閉檔案資源失敗: {}", e.getMessage());
         }
     }
 
@@ -186,37 +274,22 @@ public class ExcelFileParserService implements FileParserService {
     }
 
     /**
-     * 將CSV行轉換為TcgCard物件
+     * 將XLSX列的格式化值轉換為TcgCard物件
      */
-    private TcgCard parseCsvLineToCard(String line) {
-        try {
-            String[] fields = line.split(",", -1); // -1 保留空欄位
-            
-            if (fields.length < 6) {
-                log.warn("CSV行欄位不足: {}", line);
-                return null;
-            }
-            
-            TcgCard card = new TcgCard();
-            card.setName(fields[0].trim());
-            card.setType(fields[1].trim());
-            card.setRarity(fields[2].trim());
-            card.setAttack(parseInteger(fields[3].trim()));
-            card.setDefense(parseInteger(fields[4].trim()));
-            card.setCost(parseInteger(fields[5].trim()));
-            
-            // 選填欄位
-            if (fields.length > 6) card.setDescription(fields[6].trim());
-            if (fields.length > 7) card.setImageUrl(fields[7].trim());
-            if (fields.length > 8) card.setBackgroundStyle(fields[8].trim());
-            if (fields.length > 9) card.setBorderColor(fields[9].trim());
-            
-            return isValidCard(card) ? card : null;
-            
-        } catch (Exception e) {
-            log.warn("解析CSV行失敗: {}", e.getMessage());
-            return null;
-        }
+    private TcgCard parseValuesToCard(String[] values) {
+        TcgCard card = new TcgCard();
+        card.setName(values[0]);
+        card.setType(values[1]);
+        card.setRarity(values[2]);
+        card.setAttack(parseNumericText(values[3]));
+        card.setDefense(parseNumericText(values[4]));
+        card.setCost(parseNumericText(values[5]));
+        card.setDescription(values[6]);
+        card.setImageUrl(values[7]);
+        card.setBackgroundStyle(values[8]);
+        card.setBorderColor(values[9]);
+        
+        return isValidCard(card) ? card : null;
     }
 
     /**
@@ -254,6 +327,21 @@ public class ExcelFileParserService implements FileParserService {
         };
     }
 
+    /**
+     * 解析儲存格格式化後的數值文字為整數 (小數部分捨去，與數值儲存格的處理一致)
+     */
+    private Integer parseNumericText(String value) {
+        if (value.indexOf('.') >= 0) {
+            try {
+                return (int) Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                log.warn("數字格式錯誤: {}", value);
+                return 0;
+            }
+        }
+        return parseInteger(value);
+    }
+
     /**
      * 解析字串為整數
      */
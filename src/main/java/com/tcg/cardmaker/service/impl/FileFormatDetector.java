@@ -0,0 +1,96 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 上傳檔案格式偵測器
+ * 依檔案開頭的特徵位元組判斷實際格式，不依賴副檔名：
+ * - ZIP 簽章 (PK\3\4)：OOXML 活頁簿 (.xlsx)
+ * - OLE2 複合文件標頭 (D0 CF 11 E0 A1 B1 1A E1)：舊版活頁簿 (.xls)
+ * - 其他：文字 (CSV)，並依 BOM 判斷編碼
+ */
+final class FileFormatDetector {
+
+    /**
+     * 檔案格式
+     */
+    enum Format {
+        XLSX, XLS, CSV
+    }
+
+    /**
+     * 偵測結果
+     * 
+     * @param format 檔案格式
+     * @param charset 文字編碼 (僅 CSV 有意義)
+     * @param bomLength 需略過的 BOM 位元組數
+     */
+    record Detection(Format format, Charset charset, int bomLength) {
+    }
+    
+    private static final byte[] ZIP_SIGNATURE = {0x50, 0x4B, 0x03, 0x04};
+    private static final byte[] OLE2_SIGNATURE = {
+        (byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1
+    };
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] UTF16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+    private static final byte[] UTF16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    
+    private static final int HEADER_LENGTH = 8;
+
+    private FileFormatDetector() {
+    }
+
+    /**
+     * 偵測串流格式
+     * 僅以 mark/reset 預讀檔案開頭，串流位置維持不變，可直接交給對應的解析器
+     * 
+     * @param inputStream 支援 mark/reset 的輸入串流
+     * @return 偵測結果
+     * @throws IOException 讀取失敗時拋出異常
+     */
+    static Detection detect(InputStream inputStream) throws IOException {
+        if (!inputStream.markSupported()) {
+            throw new IllegalArgumentException("輸入串流必須支援 mark/reset");
+        }
+        
+        inputStream.mark(HEADER_LENGTH);
+        byte[] header = inputStream.readNBytes(HEADER_LENGTH);
+        inputStream.reset();
+        
+        if (startsWith(header, ZIP_SIGNATURE)) {
+            return new Detection(Format.XLSX, null, 0);
+        }
+        if (startsWith(header, OLE2_SIGNATURE)) {
+            return new Detection(Format.XLS, null, 0);
+        }
+        if (startsWith(header, UTF8_BOM)) {
+            return new Detection(Format.CSV, StandardCharsets.UTF_8, UTF8_BOM.length);
+        }
+        if (startsWith(header, UTF16LE_BOM)) {
+            return new Detection(Format.CSV, StandardCharsets.UTF_16LE, UTF16LE_BOM.length);
+        }
+        if (startsWith(header, UTF16BE_BOM)) {
+            return new Detection(Format.CSV, StandardCharsets.UTF_16BE, UTF16BE_BOM.length);
+        }
+        return new Detection(Format.CSV, StandardCharsets.UTF_8, 0);
+    }
+
+    /**
+     * 判斷位元組陣列是否以指定簽章開頭
+     */
+    private static boolean startsWith(byte[] data, byte[] signature) {
+        if (data.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (data[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,326 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.CardSheetService;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
+
+/**
+ * 格狀拼版輸出服務實作
+ * 遵循單一職責原則 (SRP) - 專責將卡片排列於印刷版面並輸出
+ *
+ * 卡片直接以平移後的圖形上下文繪製於整張版面 (與單張渲染共用繪製步驟)，
+ * 每張版面只編碼一次，不必先逐張編碼卡片再解碼重組。
+ * 出血以延伸卡片邊緣像素填滿，裁切標記沿每條裁切線繪製於版面邊界
+ */
+@Service
+public class GridCardSheetService implements CardSheetService {
+
+    private static final Logger log = LoggerFactory.getLogger(GridCardSheetService.class);
+
+    // 欄列數上限
+    private static final int MAX_GRID = 10;
+
+    // 出血、間距與邊界上限 (基準尺寸像素)
+    private static final int MAX_SPACING = 200;
+
+    // 單張版面像素數上限 (約 160MB 記憶體)
+    private static final long MAX_SHEET_PIXELS = 40_000_000L;
+
+    // 裁切標記與出血範圍之間保留的空隙 (基準尺寸像素)
+    private static final int CROP_MARK_GAP = 4;
+
+    private static final int WHITE = 0xFFFFFF;
+
+    private final ImageGeneratorService imageGeneratorService;
+    private final CardImageEncoder imageEncoder;
+    private final ArtworkPrefetcher artworkPrefetcher;
+    private final RenderAdmissionGate admissionGate;
+    private final SheetLayout defaultLayout;
+
+    // 指標：單張版面的繪製與編碼耗時
+    private final Timer drawTimer;
+    private final Timer encodeTimer;
+
+    public GridCardSheetService(ImageGeneratorService imageGeneratorService,
+                                CardImageEncoder imageEncoder,
+                                ArtworkPrefetcher artworkPrefetcher,
+                                RenderAdmissionGate admissionGate,
+                                @Value("${tcg.sheet.columns:3}") int columns,
+                                @Value("${tcg.sheet.rows:3}") int rows,
+                                @Value("${tcg.sheet.scale:1.875}") float scale,
+                                @Value("${tcg.sheet.bleed:20}") int bleed,
+                                @Value("${tcg.sheet.gutter:0}") int gutter,
+                                @Value("${tcg.sheet.margin:40}") int margin,
+                                @Value("${tcg.sheet.crop-marks:true}") boolean cropMarks,
+                                MeterRegistry meterRegistry) {
+        this.imageGeneratorService = imageGeneratorService;
+        this.imageEncoder = imageEncoder;
+        this.artworkPrefetcher = artworkPrefetcher;
+        this.admissionGate = admissionGate;
+        this.defaultLayout = new SheetLayout(columns, rows, scale, bleed, gutter, margin, cropMarks);
+        this.drawTimer = stageTimer(meterRegistry, "draw");
+        this.encodeTimer = stageTimer(meterRegistry, "encode");
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("tcg.sheet.stage")
+                .description("單張拼版版面各階段耗時")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SheetLayout getDefaultLayout() {
+        return defaultLayout;
+    }
+
+    @Override
+    public boolean isSupportedLayout(SheetLayout layout) {
+        if (layout.columns() < 1 || layout.columns() > MAX_GRID || layout.rows() < 1 || layout.rows() > MAX_GRID) {
+            return false;
+        }
+        if (!isSupportedSpacing(layout.bleed()) || !isSupportedSpacing(layout.gutter())
+                || !isSupportedSpacing(layout.margin()) || !imageGeneratorService.isSupportedScale(layout.scale())) {
+            return false;
+        }
+        SheetGeometry geometry = SheetGeometry.of(layout);
+        return (long) geometry.width() * geometry.height() <= MAX_SHEET_PIXELS;
+    }
+
+    private static boolean isSupportedSpacing(int spacing) {
+        return spacing >= 0 && spacing <= MAX_SPACING;
+    }
+
+    @Override
+    public int writeSheets(List<TcgCard> cards, SheetLayout layout, OutputStream outputStream) throws IOException {
+        if (!isSupportedLayout(layout)) {
+            throw new IllegalArgumentException("不支援的版面配置: " + layout);
+        }
+        long startTime = System.currentTimeMillis();
+
+        // 先平行預取所有插圖
+        artworkPrefetcher.prefetch(cards);
+
+        // 所有版面共用同一張畫布與編碼工作階段
+        SheetGeometry geometry = SheetGeometry.of(layout);
+        BufferedImage sheet = new BufferedImage(geometry.width(), geometry.height(), BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) sheet.getRaster().getDataBuffer()).getData();
+        Graphics2D g2d = sheet.createGraphics();
+        CardImageEncoder.Session encoder = imageEncoder.newSession();
+
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(outputStream);
+        int sheetCount = 0;
+        try {
+            for (int from = 0; from < cards.size(); from += layout.cardsPerSheet()) {
+                List<TcgCard> page = cards.subList(from, Math.min(cards.size(), from + layout.cardsPerSheet()));
+
+                byte[] imageBytes;
+                RenderAdmissionGate.Permit permit = admissionGate.acquire();
+                try {
+                    long drawStart = System.nanoTime();
+                    drawSheet(g2d, pixels, layout, geometry, page);
+                    long encodeStart = System.nanoTime();
+                    drawTimer.record(encodeStart - drawStart, TimeUnit.NANOSECONDS);
+
+                    imageBytes = encoder.encode(sheet, CardImageEncoder.Profile.ARCHIVE);
+                    encodeTimer.record(System.nanoTime() - encodeStart, TimeUnit.NANOSECONDS);
+                } finally {
+                    permit.close();
+                }
+
+                sheetCount++;
+                writeEntry(zos, String.format("sheet_%03d.%s", sheetCount, imageEncoder.getFileExtension()), imageBytes);
+            }
+            zos.finish();
+            zos.flush();
+        } finally {
+            g2d.dispose();
+            encoder.dispose();
+        }
+
+        log.info("拼版輸出完成: {} 張卡片，{} 張版面 ({}x{}，{}x{} 像素)，耗時 {} ms", cards.size(), sheetCount,
+                layout.columns(), layout.rows(), geometry.width(), geometry.height(),
+                System.currentTimeMillis() - startTime);
+        return sheetCount;
+    }
+
+    /**
+     * 繪製一張版面：清除畫布，逐張繪製卡片並延伸出血，最後繪製裁切標記
+     */
+    private void drawSheet(Graphics2D g2d, int[] pixels, SheetLayout layout, SheetGeometry geometry,
+                           List<TcgCard> cards) {
+        Arrays.fill(pixels, WHITE);
+
+        for (int i = 0; i < cards.size(); i++) {
+            TcgCard card = cards.get(i);
+            int x = geometry.cardX(i % layout.columns());
+            int y = geometry.cardY(i / layout.columns());
+
+            g2d.setTransform(AffineTransform.getTranslateInstance(x, y));
+            try {
+                imageGeneratorService.drawCard(card, g2d, layout.scale());
+            } catch (RuntimeException e) {
+                // 清除已繪製的部分 (背景、邊框、插圖)，避免半成品送印
+                log.warn("繪製卡片失敗，版面位置留白: {}", card.getName(), e);
+                clearCell(pixels, geometry, x, y);
+                continue;
+            } finally {
+                g2d.setTransform(new AffineTransform());
+            }
+            extendBleed(pixels, geometry, x, y);
+        }
+
+        if (layout.cropMarks()) {
+            drawCropMarks(g2d, layout, geometry);
+        }
+    }
+
+    /**
+     * 將卡片及其出血範圍填回白色
+     */
+    private static void clearCell(int[] pixels, SheetGeometry geometry, int x, int y) {
+        int bleed = geometry.bleed();
+        int sheetWidth = geometry.width();
+        int rowStart = x - bleed;
+        int rowLength = geometry.cardWidth() + 2 * bleed;
+        for (int row = y - bleed; row < y + geometry.cardHeight() + bleed; row++) {
+            int offset = row * sheetWidth + rowStart;
+            Arrays.fill(pixels, offset, offset + rowLength, WHITE);
+        }
+    }
+
+    /**
+     * 將卡片最外圈的像素向外延伸至出血範圍
+     */
+    private static void extendBleed(int[] pixels, SheetGeometry geometry, int x, int y) {
+        int bleed = geometry.bleed();
+        if (bleed == 0) {
+            return;
+        }
+        int sheetWidth = geometry.width();
+        int cardWidth = geometry.cardWidth();
+        int cardHeight = geometry.cardHeight();
+
+        // 左右兩側
+        for (int row = y; row < y + cardHeight; row++) {
+            int offset = row * sheetWidth;
+            Arrays.fill(pixels, offset + x - bleed, offset + x, pixels[offset + x]);
+            Arrays.fill(pixels, offset + x + cardWidth, offset + x + cardWidth + bleed, pixels[offset + x + cardWidth - 1]);
+        }
+
+        // 上下兩側 (含四角)
+        int rowStart = x - bleed;
+        int rowLength = cardWidth + 2 * bleed;
+        int topRow = y * sheetWidth + rowStart;
+        int bottomRow = (y + cardHeight - 1) * sheetWidth + rowStart;
+        for (int i = 1; i <= bleed; i++) {
+            System.arraycopy(pixels, topRow, pixels, topRow - i * sheetWidth, rowLength);
+            System.arraycopy(pixels, bottomRow, pixels, bottomRow + i * sheetWidth, rowLength);
+        }
+    }
+
+    /**
+     * 沿每條裁切線在版面邊界繪製裁切標記
+     */
+    private static void drawCropMarks(Graphics2D g2d, SheetLayout layout, SheetGeometry geometry) {
+        int margin = geometry.margin();
+        int gap = TcgCardImageGeneratorService.scaled(CROP_MARK_GAP, layout.scale());
+        int length = margin - gap;
+        if (length <= 0) {
+            return;
+        }
+        int thickness = Math.max(1, TcgCardImageGeneratorService.scaled(1, layout.scale()));
+
+        g2d.setColor(Color.BLACK);
+        for (int column = 0; column < layout.columns(); column++) {
+            int left = geometry.cardX(column);
+            for (int trimX : new int[] {left, left + geometry.cardWidth()}) {
+                int markX = trimX - thickness / 2;
+                g2d.fillRect(markX, 0, thickness, length);
+                g2d.fillRect(markX, geometry.height() - length, thickness, length);
+            }
+        }
+        for (int row = 0; row < layout.rows(); row++) {
+            int top = geometry.cardY(row);
+            for (int trimY : new int[] {top, top + geometry.cardHeight()}) {
+                int markY = trimY - thickness / 2;
+                g2d.fillRect(0, markY, length, thickness);
+                g2d.fillRect(geometry.width() - length, markY, length, thickness);
+            }
+        }
+    }
+
+    /**
+     * 寫入版面圖片 (已壓縮的圖片以 STORED 方式存放，不再壓縮一次)
+     */
+    private static void writeEntry(ZipArchiveOutputStream zos, String filename, byte[] imageBytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(imageBytes);
+
+        ZipArchiveEntry entry = new ZipArchiveEntry(filename);
+        entry.setMethod(ZipArchiveEntry.STORED);
+        entry.setSize(imageBytes.length);
+        entry.setCrc(crc.getValue());
+
+        zos.putArchiveEntry(entry);
+        zos.write(imageBytes);
+        zos.closeArchiveEntry();
+
+        // 每張版面完成即送出
+        zos.flush();
+    }
+
+    /**
+     * 版面幾何 (像素)
+     *
+     * @param pitchX 相鄰兩欄卡片的水平距離
+     * @param pitchY 相鄰兩列卡片的垂直距離
+     */
+    private record SheetGeometry(int cardWidth, int cardHeight, int bleed, int margin,
+                                 int pitchX, int pitchY, int width, int height) {
+
+        static SheetGeometry of(SheetLayout layout) {
+            float scale = layout.scale();
+            int cardWidth = TcgCardImageGeneratorService.scaled(TcgCardImageGeneratorService.CARD_WIDTH, scale);
+            int cardHeight = TcgCardImageGeneratorService.scaled(TcgCardImageGeneratorService.CARD_HEIGHT, scale);
+            int bleed = TcgCardImageGeneratorService.scaled(layout.bleed(), scale);
+            int gutter = TcgCardImageGeneratorService.scaled(layout.gutter(), scale);
+            int margin = TcgCardImageGeneratorService.scaled(layout.margin(), scale);
+
+            int pitchX = cardWidth + 2 * bleed + gutter;
+            int pitchY = cardHeight + 2 * bleed + gutter;
+            int width = 2 * margin + layout.columns() * pitchX - gutter;
+            int height = 2 * margin + layout.rows() * pitchY - gutter;
+            return new SheetGeometry(cardWidth, cardHeight, bleed, margin, pitchX, pitchY, width, height);
+        }
+
+        int cardX(int column) {
+            return margin + column * pitchX + bleed;
+        }
+
+        int cardY(int row) {
+            return margin + row * pitchY + bleed;
+        }
+    }
+}
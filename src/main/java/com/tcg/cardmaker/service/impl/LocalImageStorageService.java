@@ -1,19 +1,41 @@
 package com.tcg.cardmaker.service.impl;
 
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,28 +44,122 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.tcg.cardmaker.service.interfaces.ImageStorageService;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
 /**
  * 本地檔案系統圖片存儲服務實作
  * 遵循單一職責原則 (SRP) - 專責圖片存儲和處理
  * 遵循開放封閉原則 (OCP) - 可透過介面擴展其他存儲方式
+ *
+ * 以內容定址方式存放：檔名為內容的SHA-256，依雜湊前兩組字元分散至子目錄
+ * (images/ab/cd/abcd...ef.png)，相同內容只存一份並記錄引用。
+ * 每次上傳各取得一個釋放憑證，引用檔只保存憑證的雜湊，釋放時須出示該次上傳的憑證。
+ * 上傳時只讀取一次位元組：檢查圖片標頭後寫入並同步至磁碟即回應，
+ * 縮圖與卡片插圖尺寸版本由縮圖工作池以已讀取的位元組非同步產生，狀態可透過 getThumbnailStatus 查詢；
+ * 工作池佇列已滿時不產生縮圖 (狀態為 FAILED，相同內容再次上傳時重試)，上傳請求不會被拖慢
  */
 @Service
 public class LocalImageStorageService implements ImageStorageService {
 
     private static final Logger log = LoggerFactory.getLogger(LocalImageStorageService.class);
-    
+
     // 支援的圖片格式
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "bmp");
     
     // 最大檔案大小 (10MB)
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+    static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
     
     // 縮圖尺寸
     private static final int THUMBNAIL_SIZE = 150;
     
+    // 內容定址檔名 (SHA-256 加副檔名)
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+    
+    // 安全的上傳檔名 (內容定址檔名或舊版 UUID 檔名)
+    private static final Pattern SAFE_FILENAME = Pattern.compile("[A-Za-z0-9_-]+\\.[A-Za-z0-9]+");
+    
+    // 引用檔副檔名 (每行一個釋放憑證的雜湊)
+    private static final String REFS_SUFFIX = ".refs";
+    
+    // 釋放憑證長度 (位元組)
+    private static final int RELEASE_TOKEN_BYTES = 16;
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    // 依檔名分段鎖定引用數的更新
+    private static final int LOCK_STRIPES = 64;
+    
     // 圖片存儲目錄
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
+    
+    @Value("${app.upload.thumbnail.threads:2}")
+    private int thumbnailThreads;
+    
+    @Value("${app.upload.thumbnail.queue-size:16}")
+    private int thumbnailQueueSize;
+    
+    // 已縮放插圖存放區 (縮圖與卡片插圖共用同一份解碼結果)
+    private final ScaledArtworkStore scaledArtworkStore;
+    
+    // 插圖原始位元組快取 (圖片刪除時一併移除)
+    private final ArtworkCache artworkCache;
+    
+    // 產生中的縮圖 (完成或失敗後移除)
+    private final Map<String, Boolean> pendingThumbnails = new ConcurrentHashMap<>();
+    
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
+    // 指標：縮圖產生耗時、新存入與重複內容的上傳數
+    private final Timer thumbnailTimer;
+    private final Counter storedCounter;
+    private final Counter deduplicatedCounter;
+    private final Counter thumbnailRejectedCounter;
+    
+    private ThreadPoolExecutor thumbnailExecutor;
+    
+    public LocalImageStorageService(ScaledArtworkStore scaledArtworkStore, ArtworkCache artworkCache,
+                                    MeterRegistry meterRegistry) {
+        this.scaledArtworkStore = scaledArtworkStore;
+        this.artworkCache = artworkCache;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.thumbnailTimer = Timer.builder("tcg.upload.thumbnail")
+                .description("上傳圖片的縮圖產生耗時 (不含排隊)")
+                .register(meterRegistry);
+        this.storedCounter = meterRegistry.counter("tcg.upload.images", "outcome", "stored");
+        this.deduplicatedCounter = meterRegistry.counter("tcg.upload.images", "outcome", "deduplicated");
+        this.thumbnailRejectedCounter = meterRegistry.counter("tcg.upload.thumbnail.rejected");
+        meterRegistry.gaugeMapSize("tcg.upload.thumbnail.pending", List.of(), pendingThumbnails);
+    }
+
+    /**
+     * 初始化縮圖工作池
+     * 佇列已滿時拒絕新的縮圖工作，以限制積壓的工作量與暫存的位元組
+     */
+    @PostConstruct
+    void initThumbnailExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(thumbnailQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 關閉縮圖工作池，等待已排隊的縮圖完成
+     */
+    @PreDestroy
+    void shutdownThumbnailExecutor() throws InterruptedException {
+        thumbnailExecutor.shutdown();
+        if (!thumbnailExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            thumbnailExecutor.shutdownNow();
+        }
+    }
 
     @Override
     public UploadResult uploadImage(MultipartFile file) {
@@ -53,30 +169,53 @@ public class LocalImageStorageService implements ImageStorageService {
                 return new UploadResult(false, null, null, null, "檔案驗證失敗");
             }
             
-            // 確保目錄存在
-            ensureDirectoryExists();
-            
-            // 生成唯一檔名
+            // 讀取一次上傳內容，只解析標頭確認為可解碼的圖片並取得實際格式
             String originalFilename = file.getOriginalFilename();
-            String extension = getFileExtension(originalFilename);
-            String uniqueFilename = UUID.randomUUID().toString() + "." + extension;
+            byte[] bytes = file.getBytes();
+            String extension = detectImageFormat(bytes);
+            if (extension == null) {
+                return new UploadResult(false, null, null, null, "無法辨識的圖片內容");
+            }
             
-            // 儲存原始檔案
-            Path imagePath = saveOriginalImage(file, uniqueFilename);
+            // 以內容雜湊為檔名，相同內容只存一份
+            String storedFilename = ArtworkCache.sha256Hex(bytes) + "." + extension;
+            Path imagePath = storedPath(Paths.get(uploadDir, "images"), storedFilename);
+            String releaseToken = newReleaseToken();
+            boolean stored = storeImage(bytes, imagePath, ArtworkCache.sha256Hex(releaseToken.getBytes(StandardCharsets.UTF_8)));
             
-            // 生成縮圖
-            Path thumbnailPath = generateThumbnail(imagePath, uniqueFilename);
+            // 非同步生成縮圖 (重複內容沿用既有縮圖，先前失敗時才重新產生)
+            Path thumbnailPath = thumbnailPathOf(imagePath);
+            if (stored || (!pendingThumbnails.containsKey(storedFilename) && !Files.exists(thumbnailPath))) {
+                ArtworkCache.Artwork artwork = new ArtworkCache.Artwork(imagePath.toString(), bytes,
+                        getFilenameWithoutExtension(storedFilename));
+                pendingThumbnails.put(storedFilename, Boolean.TRUE);
+                try {
+                    thumbnailExecutor.execute(() -> generateThumbnail(artwork, imagePath, thumbnailPath, storedFilename));
+                } catch (RejectedExecutionException e) {
+                    pendingThumbnails.remove(storedFilename);
+                    thumbnailRejectedCounter.increment();
+                    log.warn("縮圖工作已滿，略過縮圖: {}", storedFilename);
+                }
+            }
             
-            log.info("圖片上傳成功: {} -> {}", originalFilename, uniqueFilename);
+            if (stored) {
+                storedCounter.increment();
+                log.info("圖片上傳成功: {} -> {}", originalFilename, storedFilename);
+            } else {
+                deduplicatedCounter.increment();
+                log.info("圖片上傳成功 (內容重複，沿用既有檔案): {} -> {}", originalFilename, storedFilename);
+            }
             
             return new UploadResult(
                 true,
                 imagePath.toString(),
                 thumbnailPath.toString(),
                 originalFilename,
-                null
+                null,
+                thumbnailState(storedFilename, thumbnailPath),
+                releaseToken
             );
-            
+        
         } catch (IOException | RuntimeException e) {
             log.error("圖片上傳失敗", e);
             return new UploadResult(false, null, null, null, "上傳失敗: " + e.getMessage());
@@ -121,81 +260,312 @@ public class LocalImageStorageService implements ImageStorageService {
 
     @Override
     public String getImagePath(String filename) {
-        return Paths.get(uploadDir, "images", filename).toString();
+        return storedPath(Paths.get(uploadDir, "images"), filename).toString();
+    }
+
+    @Override
+    public Optional<ThumbnailStatus> getThumbnailStatus(String filename) {
+        if (!isSafeFilename(filename)) {
+            return Optional.empty();
+        }
+        Path imagePath = storedPath(Paths.get(uploadDir, "images"), filename);
+        if (!Files.exists(imagePath)) {
+            return Optional.empty();
+        }
+        Path thumbnailPath = thumbnailPathOf(imagePath);
+        return Optional.of(new ThumbnailStatus(filename, thumbnailState(filename, thumbnailPath), thumbnailPath.toString()));
+    }
+
+    @Override
+    public boolean releaseImage(String filename, String releaseToken) {
+        if (!isSafeFilename(filename) || !CONTENT_ADDRESSED.matcher(filename).matches()
+                || releaseToken == null || releaseToken.isBlank()) {
+            return false;
+        }
+        Path imagePath = storedPath(Paths.get(uploadDir, "images"), filename);
+        String tokenHash = ArtworkCache.sha256Hex(releaseToken.trim().getBytes(StandardCharsets.UTF_8));
+        try {
+            synchronized (lockFor(imagePath)) {
+                if (!Files.exists(imagePath)) {
+                    return false;
+                }
+                List<String> references = readReferences(imagePath);
+                if (!references.remove(tokenHash)) {
+                    log.warn("釋放圖片引用被拒絕 (憑證不符): {}", filename);
+                    return false;
+                }
+                if (!references.isEmpty()) {
+                    writeReferences(imagePath, references);
+                    log.info("釋放圖片引用: {}，剩餘 {} 個引用", filename, references.size());
+                } else {
+                    Files.deleteIfExists(imagePath);
+                    Files.deleteIfExists(thumbnailPathOf(imagePath));
+                    Files.deleteIfExists(refsPathOf(imagePath));
+                    artworkCache.invalidate(filename);
+                    log.info("圖片已無引用，刪除: {}", filename);
+                }
+                return true;
+            }
+        } catch (IOException e) {
+            log.error("釋放圖片引用失敗: {}", filename, e);
+            return false;
+        }
     }
 
     /**
-     * 確保目錄存在
+     * 內容定址檔案的存放路徑：images/ab/cd/<雜湊>.<副檔名>
+     * 舊版 UUID 檔名仍位於 images 目錄下
      */
-    private void ensureDirectoryExists() throws IOException {
-        Path uploadPath = Paths.get(uploadDir, "images");
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-            log.info("創建上傳目錄: {}", uploadPath);
+    static Path storedPath(Path imagesDir, String filename) {
+        if (!isContentAddressed(filename)) {
+            return imagesDir.resolve(filename);
         }
+        return imagesDir.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+    }
+
+    /**
+     * 是否為內容定址檔名 (內容不會變更)
+     */
+    static boolean isContentAddressed(String filename) {
+        return filename != null && CONTENT_ADDRESSED.matcher(filename).matches();
     }
 
     /**
-     * 儲存原始圖片
+     * 檢查檔名不含路徑且不是縮圖
      */
-    private Path saveOriginalImage(MultipartFile file, String filename) throws IOException {
-        Path imagePath = Paths.get(uploadDir, "images", filename);
-        Files.copy(file.getInputStream(), imagePath, StandardCopyOption.REPLACE_EXISTING);
-        return imagePath;
+    private static boolean isSafeFilename(String filename) {
+        return filename != null && SAFE_FILENAME.matcher(filename).matches() && !filename.contains("_thumb.");
     }
 
     /**
-     * 生成縮圖
+     * 解析圖片標頭取得格式 (只讀取尺寸，不解碼像素)
+     *
+     * @return 副檔名，無法辨識或不支援時為 null
      */
-    private Path generateThumbnail(Path originalPath, String filename) throws IOException {
-        BufferedImage originalImage = ImageIO.read(originalPath.toFile());
-        if (originalImage == null) {
-            throw new IOException("無法讀取圖片: " + originalPath);
+    private String detectImageFormat(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                log.warn("無法辨識的圖片內容");
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if (reader.getWidth(0) <= 0 || reader.getHeight(0) <= 0) {
+                    return null;
+                }
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                String extension = "jpeg".equals(format) ? "jpg" : format;
+                if (!ALLOWED_EXTENSIONS.contains(extension)) {
+                    log.warn("不支援的圖片內容格式: {}", format);
+                    return null;
+                }
+                return extension;
+            } catch (IOException e) {
+                log.warn("圖片標頭無效: {}", e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 存入圖片，相同內容已存在時只增加一個引用
+     * 內容先寫入同目錄的暫存檔並同步至磁碟，再以原子性更名為正式檔名，確保回應成功時檔案已完整落地
+     *
+     * @param tokenHash 此次上傳的釋放憑證雜湊
+     * @return 是否為新存入的內容
+     */
+    private boolean storeImage(byte[] bytes, Path imagePath, String tokenHash) throws IOException {
+        Object lock = lockFor(imagePath);
+        synchronized (lock) {
+            if (Files.exists(imagePath)) {
+                addReference(imagePath, tokenHash);
+                return false;
+            }
         }
         
-        // 計算縮圖尺寸
-        int[] thumbnailDimensions = calculateThumbnailSize(
-            originalImage.getWidth(), 
-            originalImage.getHeight()
-        );
-        
-        // 創建縮圖
-        BufferedImage thumbnail = new BufferedImage(
-            thumbnailDimensions[0], 
-            thumbnailDimensions[1], 
-            BufferedImage.TYPE_INT_RGB
-        );
-        
-        Graphics2D g2d = thumbnail.createGraphics();
+        Path directory = imagePath.getParent();
+        Files.createDirectories(directory);
+        Path tempPath = writeTempFile(directory, bytes);
         try {
-            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.drawImage(originalImage, 0, 0, thumbnailDimensions[0], thumbnailDimensions[1], null);
+            synchronized (lock) {
+                // 寫入期間可能已有相同內容完成上傳
+                if (Files.exists(imagePath)) {
+                    addReference(imagePath, tokenHash);
+                    return false;
+                }
+                Files.move(tempPath, imagePath, StandardCopyOption.ATOMIC_MOVE);
+                writeReferences(imagePath, List.of(tokenHash));
+                syncDirectory(directory);
+                return true;
+            }
         } finally {
-            g2d.dispose();
+            Files.deleteIfExists(tempPath);
         }
-        
-        // 儲存縮圖
-        String thumbnailFilename = getFilenameWithoutExtension(filename) + "_thumb." + getFileExtension(filename);
-        Path thumbnailPath = Paths.get(uploadDir, "images", thumbnailFilename);
-        ImageIO.write(thumbnail, getFileExtension(filename), thumbnailPath.toFile());
-        
-        return thumbnailPath;
     }
 
     /**
-     * 計算縮圖尺寸，保持比例
+     * 讀取引用 (釋放憑證的雜湊)，引用檔不存在時沒有可釋放的引用
      */
-    private int[] calculateThumbnailSize(int originalWidth, int originalHeight) {
-        double ratio = Math.min(
-            (double) THUMBNAIL_SIZE / originalWidth,
-            (double) THUMBNAIL_SIZE / originalHeight
-        );
-        
-        return new int[]{
-            (int) (originalWidth * ratio),
-            (int) (originalHeight * ratio)
-        };
+    private List<String> readReferences(Path imagePath) throws IOException {
+        Path refsPath = refsPathOf(imagePath);
+        List<String> references = new ArrayList<>();
+        if (Files.exists(refsPath)) {
+            for (String line : Files.readAllLines(refsPath, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    references.add(line.trim());
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * 增加一個引用
+     */
+    private void addReference(Path imagePath, String tokenHash) throws IOException {
+        List<String> references = readReferences(imagePath);
+        references.add(tokenHash);
+        writeReferences(imagePath, references);
+    }
+
+    /**
+     * 以原子性替換寫入引用
+     */
+    private void writeReferences(Path imagePath, List<String> references) throws IOException {
+        Path refsPath = refsPathOf(imagePath);
+        Path tempPath = writeTempFile(refsPath.getParent(),
+                (String.join("\n", references) + "\n").getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tempPath, refsPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * 產生新的釋放憑證
+     */
+    private static String newReleaseToken() {
+        byte[] token = new byte[RELEASE_TOKEN_BYTES];
+        RANDOM.nextBytes(token);
+        return HexFormat.of().formatHex(token);
+    }
+
+    /**
+     * 寫入暫存檔並同步至磁碟
+     */
+    private Path writeTempFile(Path directory, byte[] bytes) throws IOException {
+        Path tempPath = Files.createTempFile(directory, "upload-", ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        return tempPath;
+    }
+
+    /**
+     * 同步目錄項目至磁碟 (不支援的平台略過)
+     */
+    private void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("無法同步目錄: {} ({})", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * 生成縮圖 (於縮圖工作池執行)
+     * 直接使用上傳時已讀取的位元組，不重新讀取檔案；只解碼一次：以次取樣解碼出卡片插圖尺寸的版本
+     * (同時預先放入存放區供渲染使用)，再由該版本逐步減半縮放至縮圖尺寸
+     */
+    private void generateThumbnail(ArtworkCache.Artwork original, Path originalPath, Path thumbnailPath, String filename) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage artwork = scaledArtworkStore.get(original,
+                    ScaledArtworkStore.ART_BOX_WIDTH, ScaledArtworkStore.ART_BOX_HEIGHT);
+            
+            double scale = Math.min(1.0, Math.min((double) THUMBNAIL_SIZE / artwork.getWidth(),
+                    (double) THUMBNAIL_SIZE / artwork.getHeight()));
+            BufferedImage scaledImage = ScaledArtworkStore.scaleTo(artwork,
+                    Math.max(1, (int) (artwork.getWidth() * scale)), Math.max(1, (int) (artwork.getHeight() * scale)));
+            
+            // 創建縮圖
+            BufferedImage thumbnail = new BufferedImage(
+                scaledImage.getWidth(),
+                scaledImage.getHeight(),
+                BufferedImage.TYPE_INT_RGB
+            );
+            
+            Graphics2D g2d = thumbnail.createGraphics();
+            try {
+                g2d.drawImage(scaledImage, 0, 0, null);
+            } finally {
+                g2d.dispose();
+            }
+            
+            // 儲存縮圖 (寫入暫存檔後更名，查詢端不會讀到寫入中的檔案)
+            Path tempPath = Files.createTempFile(thumbnailPath.getParent(), "thumb-", ".tmp");
+            try {
+                if (!ImageIO.write(thumbnail, getFileExtension(filename), tempPath.toFile())) {
+                    throw new IOException("不支援的縮圖格式: " + getFileExtension(filename));
+                }
+                synchronized (lockFor(originalPath)) {
+                    // 產生期間原圖已被釋放時不留下縮圖
+                    if (Files.exists(originalPath)) {
+                        Files.move(tempPath, thumbnailPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+            
+            log.debug("縮圖生成完成: {}，耗時 {} ms", filename, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.warn("縮圖生成失敗: {} ({})", filename, e.getMessage());
+        } finally {
+            thumbnailTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            pendingThumbnails.remove(filename);
+        }
+    }
+
+    /**
+     * 縮圖狀態：產生中、已存在，或工作已結束但沒有縮圖 (失敗)
+     */
+    private ThumbnailState thumbnailState(String filename, Path thumbnailPath) {
+        if (pendingThumbnails.containsKey(filename)) {
+            return ThumbnailState.PENDING;
+        }
+        return Files.exists(thumbnailPath) ? ThumbnailState.READY : ThumbnailState.FAILED;
+    }
+
+    /**
+     * 縮圖路徑 (與原圖同目錄)
+     */
+    private Path thumbnailPathOf(Path imagePath) {
+        String filename = imagePath.getFileName().toString();
+        return imagePath.resolveSibling(getFilenameWithoutExtension(filename) + "_thumb." + getFileExtension(filename));
+    }
+
+    /**
+     * 引用數檔路徑 (與原圖同目錄)
+     */
+    private Path refsPathOf(Path imagePath) {
+        return imagePath.resolveSibling(getFilenameWithoutExtension(imagePath.getFileName().toString()) + REFS_SUFFIX);
+    }
+
+    private Object lockFor(Path imagePath) {
+        return locks[Math.floorMod(imagePath.getFileName().hashCode(), LOCK_STRIPES)];
     }
 
     /**
@@ -213,4 +583,4 @@ public class LocalImageStorageService implements ImageStorageService {
         int lastDotIndex = filename.lastIndexOf('.');
         return lastDotIndex == -1 ? filename : filename.substring(0, lastDotIndex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,609 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.tcg.cardmaker.exception.ExportJobRejectedException;
+import com.tcg.cardmaker.model.ExportJob;
+import com.tcg.cardmaker.model.ExportManifest;
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.CardArchiveService;
+import com.tcg.cardmaker.service.interfaces.CardArchiveService.ArchiveBaseline;
+import com.tcg.cardmaker.service.interfaces.CardArchiveService.ArchiveProgressListener;
+import com.tcg.cardmaker.service.interfaces.ExportJobService;
+import com.tcg.cardmaker.service.interfaces.FileParserService;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 管線式匯出工作服務實作
+ * 每個工作依序經過以下階段，階段之間以有界佇列銜接：
+ * 解析 (串流讀取檔案) → 預取插圖 (分批非同步) → 平行渲染 → 寫入ZIP檔案
+ * 每次匯出保存為差異匯出的基準 (以工作ID區分)，提交時指定先前的工作ID即只渲染變更的卡片，
+ * 未變更的卡片直接沿用其ZIP項目
+ * 遵循單一職責原則 (SRP) - 專責匯出工作的排程與狀態管理
+ */
+@Service
+public class PipelinedExportJobService implements ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelinedExportJobService.class);
+    
+    // 解析階段與渲染階段之間的佇列容量
+    private static final int CARD_QUEUE_CAPACITY = 512;
+    
+    // 每累積多少張卡片送出一次插圖預取
+    private static final int PREFETCH_CHUNK_SIZE = 64;
+    
+    // 卡片佇列結束標記
+    private static final TcgCard END_OF_CARDS = new TcgCard();
+    
+    // 差異匯出基準的清單檔名
+    private static final String MANIFEST_FILE = "manifest.tsv";
+    
+    // 過期工作的清除間隔
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+    
+    @Value("${tcg.job.max-concurrent:2}")
+    private int maxConcurrentJobs;
+    
+    @Value("${tcg.job.queue-size:8}")
+    private int maxQueuedJobs;
+    
+    @Value("${tcg.job.retry-after:30s}")
+    private Duration retryAfter;
+    
+    @Value("${tcg.job.retention-minutes:60}")
+    private long retentionMinutes;
+    
+    @Value("${tcg.card.output-dir:./output/cards}")
+    private String outputDir;
+    
+    @Value("${tcg.card.temp-dir:./temp}")
+    private String tempDir;
+    
+    @Value("${tcg.job.delta-export:true}")
+    private boolean deltaExport;
+    
+    @Value("${tcg.job.baseline-retention:7d}")
+    private Duration baselineRetention;
+    
+    private final FileParserService fileParserService;
+    private final CardArchiveService cardArchiveService;
+    private final ArtworkPrefetcher artworkPrefetcher;
+    
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    
+    // 工作執行緒池 (每個工作佔用一個協調執行緒，另有一個解析執行緒)
+    private ThreadPoolExecutor jobExecutor;
+    private ExecutorService parseExecutor;
+    
+    // 定期清除過期工作
+    private ScheduledExecutorService purgeExecutor;
+
+    public PipelinedExportJobService(FileParserService fileParserService,
+                                     CardArchiveService cardArchiveService,
+                                     ArtworkPrefetcher artworkPrefetcher) {
+        this.fileParserService = fileParserService;
+        this.cardArchiveService = cardArchiveService;
+        this.artworkPrefetcher = artworkPrefetcher;
+    }
+
+    /**
+     * 初始化工作執行緒池
+     * 排隊中的工作數有上限，已滿時拒絕新的工作
+     */
+    @PostConstruct
+    void init() {
+        AtomicInteger jobCounter = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + jobCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        AtomicInteger parseCounter = new AtomicInteger();
+        parseExecutor = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "export-parse-" + parseCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "export-job-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeExecutor.scheduleWithFixedDelay(this::purgeExpiredJobs,
+                PURGE_INTERVAL_SECONDS, PURGE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 關閉工作執行緒池
+     */
+    @PreDestroy
+    void shutdown() {
+        purgeExecutor.shutdownNow();
+        jobExecutor.shutdownNow();
+        parseExecutor.shutdownNow();
+    }
+
+    @Override
+    public ExportJob submit(MultipartFile file, String baselineJobId) throws IOException {
+        // 工作ID同時是基準目錄名稱，只接受UUID格式
+        String baseline = baselineJobId != null && !baselineJobId.isBlank()
+                ? UUID.fromString(baselineJobId.trim()).toString() : null;
+        
+        // 佇列已滿時不必保存上傳檔案 (最終仍以提交結果為準)
+        if (jobExecutor.getQueue().remainingCapacity() == 0) {
+            throw rejected();
+        }
+        
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), baseline);
+        
+        // 請求結束後上傳暫存檔即會被刪除，先保存一份供背景解析使用
+        Path jobTempDir = Files.createDirectories(Paths.get(tempDir, "jobs"));
+        Path upload = jobTempDir.resolve(job.getId() + "_" + safeFilename(file.getOriginalFilename()));
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> runJob(job, new StoredUpload(upload, file)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(upload);
+            throw rejected();
+        }
+        
+        log.info("已提交匯出工作: {} ({})", job.getId(), file.getOriginalFilename());
+        return job;
+    }
+
+    @Override
+    public Optional<ExportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Override
+    public Optional<InputStream> openArtifact(ExportJob job) throws IOException {
+        // 與過期清除互斥：登記下載後產出檔案即不會被刪除
+        synchronized (job) {
+            if (jobs.get(job.getId()) != job || job.getArtifactPath() == null) {
+                return Optional.empty();
+            }
+            job.downloadStarted();
+        }
+        try {
+            return Optional.of(new FilterInputStream(Files.newInputStream(job.getArtifactPath())) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (!closed) {
+                            closed = true;
+                            job.downloadFinished();
+                        }
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            job.downloadFinished();
+            throw e;
+        }
+    }
+
+    private ExportJobRejectedException rejected() {
+        return new ExportJobRejectedException("匯出工作已滿，請稍後再試", retryAfter);
+    }
+
+    /**
+     * 執行匯出管線
+     */
+    private void runJob(ExportJob job, StoredUpload upload) {
+        job.markRunning();
+        long startNanos = System.nanoTime();
+        
+        Path artifactDir = Paths.get(outputDir, "jobs");
+        Path artifact = artifactDir.resolve(job.getId() + ".zip");
+        CardQueue queue = new CardQueue();
+        ArchiveBaseline baseline = deltaExport && job.getBaselineJobId() != null
+                ? loadBaseline(job.getBaselineJobId()) : null;
+        
+        // 解析階段：串流讀取檔案放入有界佇列，並分批送出插圖預取
+        CompletableFuture<Void> parseStage = CompletableFuture.runAsync(
+                () -> parseInto(job, upload, queue, startNanos), parseExecutor);
+        
+        try {
+            Files.createDirectories(artifactDir);
+            TimedOutputStream out = new TimedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(artifact)));
+            long renderStart = System.nanoTime();
+            ExportManifest manifest;
+            try (out) {
+                // 渲染與打包階段：渲染工作池內同時進行中的卡片數有上限，完成後依序寫入ZIP；
+                // 與基準相同的卡片不渲染，直接複製基準ZIP中的項目
+                manifest = cardArchiveService.writeDeltaArchive(queue, out, progressListener(job),
+                        baseline, artifact.getFileName().toString());
+            }
+            job.recordStageTiming("render", elapsedMillis(renderStart));
+            job.recordStageTiming("zipWrite", TimeUnit.NANOSECONDS.toMillis(out.writeNanos));
+            
+            parseStage.join();
+            if (deltaExport) {
+                publishBaseline(job.getId(), artifact, manifest);
+            }
+            job.recordStageTiming("total", elapsedMillis(startNanos));
+            job.markCompleted(artifact, Files.size(artifact));
+            
+            log.info("匯出工作完成: {}，成功 {}，沿用 {}，失敗 {}，耗時 {}", job.getId(),
+                    job.getCardsRendered(), job.getCardsReused(), job.getCardsFailed(), job.getStageTimings());
+        } catch (IOException | RuntimeException e) {
+            queue.abort();
+            String message = e instanceof UncheckedIOException ? e.getCause().getMessage() : e.getMessage();
+            log.error("匯出工作失敗: {}", job.getId(), e);
+            job.markFailed(message);
+            deleteQuietly(artifact);
+        } finally {
+            deleteQuietly(upload.path);
+        }
+    }
+
+    /**
+     * 將渲染進度記錄至工作
+     */
+    private static ArchiveProgressListener progressListener(ExportJob job) {
+        return new ArchiveProgressListener() {
+            @Override
+            public void onCardProcessed(ImageGeneratorService.RenderResult result) {
+                if (result.isSuccess()) {
+                    job.incrementRendered();
+                } else {
+                    job.incrementFailed();
+                }
+            }
+
+            @Override
+            public void onCardReused(TcgCard card) {
+                job.incrementReused();
+            }
+        };
+    }
+
+    /**
+     * 讀取指定工作的匯出基準，不存在 (未知或已過期) 或無法讀取時回傳 null (完整匯出)
+     */
+    private ArchiveBaseline loadBaseline(String baselineJobId) {
+        Path manifestFile = baselineDir(baselineJobId).resolve(MANIFEST_FILE);
+        if (!Files.exists(manifestFile)) {
+            log.info("差異匯出基準不存在，改為完整匯出: {}", baselineJobId);
+            return null;
+        }
+        try {
+            ExportManifest manifest = ExportManifest.read(manifestFile);
+            return new ArchiveBaseline(manifestFile.resolveSibling(manifest.getArchiveName()), manifest);
+        } catch (IOException e) {
+            log.warn("讀取差異匯出基準失敗，改為完整匯出: {} ({})", manifestFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 將本次匯出保存為之後以此工作ID提交時的基準
+     * ZIP以硬連結保存 (不支援時複製)，工作產出過期刪除後基準仍保留至基準保留期限；清單最後寫入
+     */
+    private void publishBaseline(String jobId, Path artifact, ExportManifest manifest) {
+        Path jobDir = baselineDir(jobId);
+        try {
+            Files.createDirectories(jobDir);
+            Path archive = jobDir.resolve(manifest.getArchiveName());
+            try {
+                Files.createLink(archive, artifact);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(artifact, archive, StandardCopyOption.REPLACE_EXISTING);
+            }
+            
+            Path tempManifest = Files.createTempFile(jobDir, "manifest", ".tmp");
+            manifest.write(tempManifest);
+            Files.move(tempManifest, jobDir.resolve(MANIFEST_FILE), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("保存差異匯出基準失敗: {} ({})", jobDir, e.getMessage());
+        }
+    }
+
+    /**
+     * 差異匯出基準目錄 (依工作ID區分)
+     */
+    private Path baselineDir(String jobId) {
+        return Paths.get(outputDir, "exports", jobId);
+    }
+
+    /**
+     * 清除超過保留期限的差異匯出基準
+     */
+    private void purgeExpiredBaselines() {
+        Path exportsDir = Paths.get(outputDir, "exports");
+        if (!Files.isDirectory(exportsDir)) {
+            return;
+        }
+        
+        long expireBefore = System.currentTimeMillis() - baselineRetention.toMillis();
+        try (Stream<Path> dirs = Files.list(exportsDir)) {
+            dirs.filter(dir -> Files.isDirectory(dir) && lastModified(dir) < expireBefore)
+                    .forEach(this::deleteDirectoryQuietly);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("清除差異匯出基準失敗: {} ({})", exportsDir, e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 刪除基準目錄及其中的檔案 (基準目錄內沒有子目錄)
+     */
+    private void deleteDirectoryQuietly(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(this::deleteQuietly);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("刪除目錄失敗: {} ({})", dir, e.getMessage());
+        }
+        deleteQuietly(dir);
+    }
+
+    /**
+     * 解析階段
+     */
+    private void parseInto(ExportJob job, StoredUpload upload, CardQueue queue, long startNanos) {
+        List<TcgCard> prefetchChunk = new ArrayList<>(PREFETCH_CHUNK_SIZE);
+        List<CompletableFuture<Void>> prefetches = new ArrayList<>();
+        
+        try (Stream<TcgCard> cards = fileParserService.streamFile(upload)) {
+            Iterator<TcgCard> it = cards.iterator();
+            while (it.hasNext()) {
+                TcgCard card = it.next();
+                job.incrementParsed();
+                prefetchChunk.add(card);
+                if (prefetchChunk.size() == PREFETCH_CHUNK_SIZE) {
+                    prefetches.add(artworkPrefetcher.prefetch(prefetchChunk));
+                    prefetchChunk = new ArrayList<>(PREFETCH_CHUNK_SIZE);
+                }
+                queue.put(card);
+            }
+            if (!prefetchChunk.isEmpty()) {
+                prefetches.add(artworkPrefetcher.prefetch(prefetchChunk));
+            }
+            job.markParseComplete();
+            job.recordStageTiming("parse", elapsedMillis(startNanos));
+            queue.finish();
+            
+            CompletableFuture.allOf(prefetches.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, error) -> job.recordStageTiming("prefetch", elapsedMillis(startNanos)));
+        } catch (Exception e) {
+            queue.fail(e);
+        }
+    }
+
+    /**
+     * 清除過期的已結束工作及其產出檔案 (定期執行，下載中的工作保留至下一輪)，以及過期的差異匯出基準
+     */
+    void purgeExpiredJobs() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            synchronized (job) {
+                if (!job.isFinished() || job.getFinishedAt() >= expireBefore || job.getActiveDownloads() > 0) {
+                    return false;
+                }
+                if (job.getArtifactPath() != null) {
+                    deleteQuietly(job.getArtifactPath());
+                }
+                return true;
+            }
+        });
+        purgeExpiredBaselines();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String safeFilename(String filename) {
+        if (filename == null) return "upload";
+        int lastSlash = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\'));
+        return filename.substring(lastSlash + 1).replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("刪除檔案失敗: {} ({})", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 解析階段與渲染階段之間的有界卡片佇列
+     * 佇列滿時解析端等待；渲染端迭代時取出卡片，解析失敗會在迭代時拋出
+     */
+    private static class CardQueue implements Iterable<TcgCard> {
+        
+        private final BlockingQueue<TcgCard> queue = new ArrayBlockingQueue<>(CARD_QUEUE_CAPACITY);
+        private volatile Exception failure;
+        private volatile boolean aborted;
+
+        void put(TcgCard card) throws InterruptedException, IOException {
+            while (!queue.offer(card, 100, TimeUnit.MILLISECONDS)) {
+                if (aborted) {
+                    throw new IOException("匯出工作已中止");
+                }
+            }
+        }
+
+        void finish() throws InterruptedException, IOException {
+            put(END_OF_CARDS);
+        }
+
+        void fail(Exception e) {
+            failure = e;
+            queue.clear();
+            queue.offer(END_OF_CARDS);
+        }
+
+        void abort() {
+            aborted = true;
+            queue.clear();
+        }
+
+        @Override
+        public Iterator<TcgCard> iterator() {
+            return new Iterator<>() {
+                private TcgCard next;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null) {
+                        try {
+                            next = queue.take();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new UncheckedIOException(new IOException("匯出工作被中斷", e));
+                        }
+                    }
+                    if (next == END_OF_CARDS && failure != null) {
+                        throw new UncheckedIOException(new IOException("檔案解析失敗: " + failure.getMessage(), failure));
+                    }
+                    return next != END_OF_CARDS;
+                }
+
+                @Override
+                public TcgCard next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    TcgCard card = next;
+                    next = null;
+                    return card;
+                }
+            };
+        }
+    }
+
+    /**
+     * 記錄寫入耗時的輸出串流
+     */
+    private static class TimedOutputStream extends FilterOutputStream {
+        
+        private long writeNanos;
+
+        TimedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            out.flush();
+            writeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 已保存的上傳檔案
+     * 背景工作以此代替請求結束後即失效的原始上傳檔
+     */
+    private static class StoredUpload implements MultipartFile {
+        
+        private final Path path;
+        private final String name;
+        private final String originalFilename;
+        private final String contentType;
+
+        StoredUpload(Path path, MultipartFile original) {
+            this.path = path;
+            this.name = original.getName();
+            this.originalFilename = original.getOriginalFilename();
+            this.contentType = original.getContentType();
+        }
+
+        @Override public String getName() { return name; }
+        @Override public String getOriginalFilename() { return originalFilename; }
+        @Override public String getContentType() { return contentType; }
+        @Override public boolean isEmpty() { return getSize() == 0; }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 24位元RGB PNG編碼器
+ * 直接讀取 INT_RGB 畫布的像素陣列，可設定壓縮等級與掃描線濾波方式；
+ * 內部緩衝區與 Deflater 可重複使用，非執行緒安全
+ */
+final class PngEncoder {
+
+    /**
+     * 掃描線濾波方式
+     */
+    enum Filter {
+        NONE(0), SUB(1), UP(2), AVERAGE(3), PAETH(4),
+        // 每列選擇絕對值總和最小的濾波 (壓縮率最佳，速度較慢)
+        ADAPTIVE(-1);
+
+        private final int type;
+
+        Filter(int type) {
+            this.type = type;
+        }
+    }
+
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+    private static final int BYTES_PER_PIXEL = 3;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Filter filter;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[CHUNK_SIZE + 12];
+
+    // 掃描線緩衝區：原始列、上一列、各濾波結果 (首位元組為濾波類型)
+    private byte[] currentRow = new byte[0];
+    private byte[] previousRow = new byte[0];
+    private byte[][] filteredRows = new byte[5][0];
+    private int[] rowPixels = new int[0];
+
+    PngEncoder(int compressionLevel, Filter filter) {
+        this.filter = filter;
+        this.deflater = new Deflater(compressionLevel);
+        if (filter != Filter.NONE) {
+            // 濾波後的資料以 FILTERED 策略壓縮效果較好
+            deflater.setStrategy(Deflater.FILTERED);
+        }
+    }
+
+    /**
+     * 編碼圖片 (忽略Alpha通道)
+     */
+    void encode(BufferedImage image, OutputStream out) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ensureCapacity(width);
+
+        out.write(SIGNATURE);
+        writeHeader(out, width, height);
+
+        int[] pixels = null;
+        if ((image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt dataBuffer) {
+            pixels = dataBuffer.getData();
+        }
+
+        int rowLength = width * BYTES_PER_PIXEL;
+        Arrays.fill(previousRow, 0, rowLength, (byte) 0);
+        deflater.reset();
+        int chunkLength = 0;
+
+        for (int y = 0; y < height; y++) {
+            if (pixels != null) {
+                toRgb(pixels, y * width, width);
+            } else {
+                image.getRGB(0, y, width, 1, rowPixels, 0, width);
+                toRgb(rowPixels, 0, width);
+            }
+
+            byte[] row = filterRow(rowLength);
+            deflater.setInput(row, 0, rowLength + 1);
+            while (!deflater.needsInput()) {
+                chunkLength = deflateInto(out, chunkLength);
+            }
+
+            byte[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+
+        deflater.finish();
+        while (!deflater.finished()) {
+            chunkLength = deflateInto(out, chunkLength);
+        }
+        if (chunkLength > 0) {
+            writeChunk(out, "IDAT", chunkLength);
+        }
+
+        writeChunk(out, "IEND", 0);
+    }
+
+    /**
+     * 釋放 Deflater 原生資源
+     */
+    void dispose() {
+        deflater.end();
+    }
+
+    /**
+     * 壓縮資料寫入IDAT區塊緩衝，區塊滿時輸出
+     */
+    private int deflateInto(OutputStream out, int chunkLength) throws IOException {
+        chunkLength += deflater.deflate(chunk, 8 + chunkLength, CHUNK_SIZE - chunkLength);
+        if (chunkLength == CHUNK_SIZE) {
+            writeChunk(out, "IDAT", chunkLength);
+            chunkLength = 0;
+        }
+        return chunkLength;
+    }
+
+    /**
+     * 將像素轉為RGB位元組
+     */
+    private void toRgb(int[] pixels, int offset, int width) {
+        byte[] row = currentRow;
+        for (int x = 0, i = 0; x < width; x++) {
+            int argb = pixels[offset + x];
+            row[i++] = (byte) (argb >> 16);
+            row[i++] = (byte) (argb >> 8);
+            row[i++] = (byte) argb;
+        }
+    }
+
+    /**
+     * 濾波目前掃描線
+     *
+     * @return 濾波後的列 (含濾波類型位元組)
+     */
+    private byte[] filterRow(int rowLength) {
+        if (filter != Filter.ADAPTIVE) {
+            return applyFilter(filter.type, rowLength);
+        }
+
+        byte[] best = null;
+        long bestSum = Long.MAX_VALUE;
+        for (int type = 0; type <= 4; type++) {
+            byte[] candidate = applyFilter(type, rowLength);
+            long sum = 0;
+            for (int i = 1; i <= rowLength && sum < bestSum; i++) {
+                sum += Math.abs(candidate[i]);
+            }
+            if (sum < bestSum) {
+                bestSum = sum;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 套用指定濾波
+     */
+    private byte[] applyFilter(int type, int rowLength) {
+        byte[] cur = currentRow;
+        byte[] prev = previousRow;
+        byte[] out = filteredRows[type];
+        out[0] = (byte) type;
+
+        switch (type) {
+            case 0 -> System.arraycopy(cur, 0, out, 1, rowLength);
+            case 1 -> {
+                for (int i = 0; i < rowLength; i++) {
+                    int left = i >= BYTES_PER_PIXEL ? cur[i - BYTES_PER_PIXEL] & 0xFF : 0;
+                    out[i + 1] = (byte) ((cur[i] & 0xFF) - left);
+                }
+            }
+            case 2 -> {
+                for (int i = 0; i < rowLength; i++) {
+                    out[i + 1] = (byte) ((cur[i] & 0xFF) - (prev[i] & 0xFF));
+                }
+            }
+            case 3 -> {
+                for (int i = 0; i < rowLength; i++) {
+                    int left = i >= BYTES_PER_PIXEL ? cur[i - BYTES_PER_PIXEL] & 0xFF : 0;
+                    out[i + 1] = (byte) ((cur[i] & 0xFF) - ((left + (prev[i] & 0xFF)) >> 1));
+                }
+            }
+            default -> {
+                for (int i = 0; i < rowLength; i++) {
+                    int a = i >= BYTES_PER_PIXEL ? cur[i - BYTES_PER_PIXEL] & 0xFF : 0;
+                    int b = prev[i] & 0xFF;
+                    int c = i >= BYTES_PER_PIXEL ? prev[i - BYTES_PER_PIXEL] & 0xFF : 0;
+                    out[i + 1] = (byte) ((cur[i] & 0xFF) - paeth(a, b, c));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    /**
+     * 寫出IHDR區塊 (8位元RGB、不交錯)
+     */
+    private void writeHeader(OutputStream out, int width, int height) throws IOException {
+        putInt(chunk, 8, width);
+        putInt(chunk, 12, height);
+        chunk[16] = 8;  // 位元深度
+        chunk[17] = 2;  // 色彩類型: RGB
+        chunk[18] = 0;  // 壓縮方式
+        chunk[19] = 0;  // 濾波方式
+        chunk[20] = 0;  // 不交錯
+        writeChunk(out, "IHDR", 13);
+    }
+
+    /**
+     * 寫出區塊：資料已位於 chunk[8..8+length)
+     */
+    private void writeChunk(OutputStream out, String type, int length) throws IOException {
+        putInt(chunk, 0, length);
+        for (int i = 0; i < 4; i++) {
+            chunk[4 + i] = (byte) type.charAt(i);
+        }
+        crc.reset();
+        crc.update(chunk, 4, length + 4);
+        putInt(chunk, 8 + length, (int) crc.getValue());
+        out.write(chunk, 0, length + 12);
+    }
+
+    private void ensureCapacity(int width) {
+        int rowLength = width * BYTES_PER_PIXEL;
+        if (currentRow.length < rowLength) {
+            currentRow = new byte[rowLength];
+            previousRow = new byte[rowLength];
+            filteredRows = new byte[5][rowLength + 1];
+            rowPixels = new int[width];
+        }
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+}
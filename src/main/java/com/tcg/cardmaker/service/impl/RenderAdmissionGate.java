@@ -0,0 +1,241 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.tcg.cardmaker.exception.RenderRejectedException;
+
+/**
+ * 渲染准入控制
+ * 以固定數量的渲染許可 (預設為CPU核心數) 限制同時進行的繪製與編碼：
+ * - 互動請求 (單張預覽) 最多等待設定時間，等待佇列已滿或逾時即拒絕，由控制器回應 429
+ * - 批量渲染工作執行緒本身數量有限，直接排隊等待許可，不會被拒絕，也不佔用互動請求的等待名額
+ * - 批量下載串流另外受同時輸出數上限限制，名額已滿時最多等待設定時間，逾時即拒絕
+ * 尖峰時多出的請求快速失敗，而不是全部同時渲染拖慢所有人
+ */
+@Component
+public class RenderAdmissionGate {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderAdmissionGate.class);
+
+    private final int permits;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+
+    private final Semaphore semaphore;
+    private final int maxBatches;
+    private final Semaphore batchStreams;
+
+    // 等待中的互動請求數 (受等待佇列上限限制) 與批量工作數 (僅供監控)
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger batchWaiting = new AtomicInteger();
+
+    // 統計計數
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+    private final AtomicLong rejectedBatchLimit = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    // 監控指標
+    private final Timer waitTimer;
+    private final Counter queueFullCounter;
+    private final Counter timeoutCounter;
+    private final Counter batchLimitCounter;
+
+    public RenderAdmissionGate(@Value("${tcg.render.admission.permits:0}") int permits,
+                               @Value("${tcg.render.admission.queue-size:16}") int maxQueued,
+                               @Value("${tcg.render.admission.max-wait:2s}") Duration maxWait,
+                               @Value("${tcg.render.admission.retry-after:1s}") Duration retryAfter,
+                               @Value("${tcg.render.admission.max-batches:2}") int maxBatches,
+                               MeterRegistry meterRegistry) {
+        this.permits = permits > 0 ? permits : Runtime.getRuntime().availableProcessors();
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        this.semaphore = new Semaphore(this.permits, true);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.batchStreams = new Semaphore(this.maxBatches, true);
+
+        this.waitTimer = Timer.builder("tcg.render.admission.wait")
+                .description("等待渲染許可的時間")
+                .register(meterRegistry);
+        this.queueFullCounter = meterRegistry.counter("tcg.render.admission.rejected", "reason", "queue-full");
+        this.timeoutCounter = meterRegistry.counter("tcg.render.admission.rejected", "reason", "timeout");
+        this.batchLimitCounter = meterRegistry.counter("tcg.render.admission.rejected", "reason", "batch-limit");
+        meterRegistry.gauge("tcg.render.admission.waiting", List.of(Tag.of("kind", "interactive")), waiting);
+        meterRegistry.gauge("tcg.render.admission.waiting", List.of(Tag.of("kind", "batch")), batchWaiting);
+        meterRegistry.gauge("tcg.render.admission.in-use", semaphore, s -> this.permits - s.availablePermits());
+        meterRegistry.gauge("tcg.render.admission.batch-streams", batchStreams, s -> this.maxBatches - s.availablePermits());
+
+        log.info("渲染准入控制: 許可 {}，等待佇列 {}，最長等待 {}，批量輸出上限 {}",
+                this.permits, maxQueued, maxWait, this.maxBatches);
+    }
+
+    /**
+     * 互動請求取得渲染許可，最多等待設定時間
+     *
+     * @return 渲染許可，使用完畢後需關閉以釋放
+     * @throws RenderRejectedException 等待佇列已滿或等待逾時
+     * @throws InterruptedIOException 等待時被中斷
+     */
+    public Permit tryAcquire() throws InterruptedIOException {
+        if (tryAcquireNow()) {
+            return admit(0);
+        }
+
+        // 先佔用等待名額，超出佇列上限直接拒絕
+        if (waiting.incrementAndGet() > maxQueued) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.incrementAndGet();
+            queueFullCounter.increment();
+            throw new RenderRejectedException("渲染忙碌中，等待佇列已滿", retryAfter);
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedTimeout.incrementAndGet();
+                timeoutCounter.increment();
+                throw new RenderRejectedException("渲染忙碌中，等待許可逾時", retryAfter);
+            }
+            return admit(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待渲染許可被中斷");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * 批量工作取得渲染許可，等待直到取得為止
+     *
+     * @return 渲染許可，使用完畢後需關閉以釋放
+     * @throws InterruptedIOException 等待時被中斷 (例如批量工作被取消)
+     */
+    public Permit acquire() throws InterruptedIOException {
+        if (tryAcquireNow()) {
+            return admit(0);
+        }
+
+        batchWaiting.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            semaphore.acquire();
+            return admit(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待渲染許可被中斷");
+        } finally {
+            batchWaiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * 批量下載取得輸出名額，最多等待設定時間
+     * 名額在整個串流輸出期間持有，其中每張卡片的渲染仍各自透過 {@link #acquire()} 取得渲染許可
+     *
+     * @return 輸出名額，串流結束後需關閉以釋放
+     * @throws RenderRejectedException 同時輸出數已達上限且等待逾時
+     * @throws InterruptedIOException 等待時被中斷
+     */
+    public Permit acquireBatchStream() throws InterruptedIOException {
+        try {
+            if (!batchStreams.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedBatchLimit.incrementAndGet();
+                batchLimitCounter.increment();
+                throw new RenderRejectedException("批量輸出忙碌中，同時輸出數已達上限", retryAfter);
+            }
+            return new Permit(batchStreams);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待批量輸出名額被中斷");
+        }
+    }
+
+    /**
+     * 建議的重試間隔
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * 取得准入統計
+     */
+    public Stats getStats() {
+        long admittedCount = admitted.get();
+        return new Stats(permits, permits - semaphore.availablePermits(), waiting.get(), batchWaiting.get(), maxQueued,
+                maxBatches, maxBatches - batchStreams.availablePermits(),
+                admittedCount, rejectedQueueFull.get(), rejectedTimeout.get(), rejectedBatchLimit.get(),
+                admittedCount > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / admittedCount) : 0,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    /**
+     * 不等待地嘗試取得許可 (公平模式下不插隊到等待者之前)
+     */
+    private boolean tryAcquireNow() {
+        try {
+            return semaphore.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Permit admit(long waitNanos) {
+        admitted.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        return new Permit(semaphore);
+    }
+
+    /**
+     * 渲染許可 (或批量輸出名額)，重複關閉只釋放一次；可由取得者以外的執行緒關閉
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+
+    /**
+     * 准入統計快照
+     */
+    public record Stats(int permits, int inUse, int waiting, int batchWaiting, int queueSize,
+                        int maxBatches, int activeBatches, long admitted,
+                        long rejectedQueueFull, long rejectedTimeout, long rejectedBatchLimit,
+                        long averageWaitMillis, long maxWaitMillis) {
+    }
+}
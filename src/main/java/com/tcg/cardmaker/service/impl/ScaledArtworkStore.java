@@ -0,0 +1,263 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 已縮放插圖存放區
+ * 以 (插圖內容摘要, 目標框尺寸) 為鍵，保存已縮放至最終尺寸、可直接繪製的圖片。
+ * 解碼時透過 ImageIO 次取樣直接讀出接近目標尺寸的像素，
+ * 避免每次渲染都解碼並縮放完整解析度的原圖
+ */
+@Component
+public class ScaledArtworkStore {
+
+    /**
+     * 卡片插圖區域尺寸
+     */
+    public static final int ART_BOX_WIDTH = 340;
+    public static final int ART_BOX_HEIGHT = 200;
+    
+    private final ArtworkCache artworkCache;
+    private final long maxMemoryBytes;
+    
+    // 記憶體LRU (存取順序)
+    private final LinkedHashMap<String, BufferedImage> memoryCache = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    
+    // 進行中的解碼，同一鍵只會有一個
+    private final Map<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+    
+    // 統計計數
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong decodes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ScaledArtworkStore(ArtworkCache artworkCache,
+                              @Value("${tcg.artwork.cache.scaled-memory-size:128MB}") DataSize memorySize) {
+        this.artworkCache = artworkCache;
+        this.maxMemoryBytes = memorySize.toBytes();
+    }
+
+    /**
+     * 取得等比例縮放至目標框內的插圖
+     * 
+     * @param source 本地路徑或遠端URL
+     * @param boxWidth 目標框寬度
+     * @param boxHeight 目標框高度
+     * @return 已縮放的圖片 (共用實例，呼叫端不可修改)
+     * @throws IOException 無法載入或解碼時拋出異常
+     */
+    public BufferedImage get(String source, int boxWidth, int boxHeight) throws IOException {
+        // 內容摘要已知時先查記憶體層，命中時不必取得原始位元組
+        String digest = artworkCache.cachedDigest(source);
+        BufferedImage cached = digest != null ? memoryGet(keyOf(digest, boxWidth, boxHeight)) : null;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        
+        ArtworkCache.Artwork artwork = artworkCache.load(source);
+        return artwork.digest().equals(digest) ? decode(artwork, boxWidth, boxHeight) : get(artwork, boxWidth, boxHeight);
+    }
+
+    /**
+     * 取得已載入插圖等比例縮放至目標框內的版本 (例如剛上傳、位元組仍在記憶體中的圖片)
+     * 
+     * @param artwork 插圖原始位元組及內容摘要
+     * @param boxWidth 目標框寬度
+     * @param boxHeight 目標框高度
+     * @return 已縮放的圖片 (共用實例，呼叫端不可修改)
+     * @throws IOException 無法解碼時拋出異常
+     */
+    public BufferedImage get(ArtworkCache.Artwork artwork, int boxWidth, int boxHeight) throws IOException {
+        BufferedImage cached = memoryGet(keyOf(artwork.digest(), boxWidth, boxHeight));
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        return decode(artwork, boxWidth, boxHeight);
+    }
+
+    /**
+     * 解碼並放入記憶體層，同一鍵同時只解碼一次
+     */
+    private BufferedImage decode(ArtworkCache.Artwork artwork, int boxWidth, int boxHeight) throws IOException {
+        String key = keyOf(artwork.digest(), boxWidth, boxHeight);
+        CompletableFuture<BufferedImage> own = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return await(existing);
+        }
+        
+        try {
+            BufferedImage scaled = decodeScaled(artwork, boxWidth, boxHeight);
+            decodes.incrementAndGet();
+            memoryPut(key, scaled);
+            own.complete(scaled);
+            return scaled;
+        } catch (IOException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * 已縮放插圖的鍵
+     */
+    private static String keyOf(String digest, int boxWidth, int boxHeight) {
+        return digest + "@" + boxWidth + "x" + boxHeight;
+    }
+
+    /**
+     * 取得統計
+     */
+    public Stats getStats() {
+        synchronized (memoryCache) {
+            return new Stats(hits.get(), decodes.get(), evictions.get(), memoryCache.size(), memoryBytes, maxMemoryBytes);
+        }
+    }
+
+    /**
+     * 以次取樣解碼並縮放至目標框內
+     */
+    private BufferedImage decodeScaled(ArtworkCache.Artwork artwork, int boxWidth, int boxHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(artwork.bytes()))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("無法解碼圖片: " + artwork.source());
+            }
+            
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                
+                // 計算縮放比例，保持比例
+                double scale = Math.min((double) boxWidth / sourceWidth, (double) boxHeight / sourceHeight);
+                int targetWidth = Math.max(1, (int) (sourceWidth * scale));
+                int targetHeight = Math.max(1, (int) (sourceHeight * scale));
+                
+                // 次取樣後保留至少兩倍目標尺寸，再以平滑縮放收尾
+                int subsampling = Math.max(1, Math.min(sourceWidth / (targetWidth * 2), sourceHeight / (targetHeight * 2)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                
+                return scaleTo(reader.read(0, param), targetWidth, targetHeight);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 縮放至指定尺寸，縮小超過一半時逐步減半以維持品質
+     */
+    static BufferedImage scaleTo(BufferedImage image, int targetWidth, int targetHeight) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        
+        do {
+            width = width / 2 > targetWidth ? width / 2 : targetWidth;
+            height = height / 2 > targetHeight ? height / 2 : targetHeight;
+            
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = next.createGraphics();
+            try {
+                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2d.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g2d.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        
+        return current;
+    }
+
+    /**
+     * 等待其他執行緒的解碼結果
+     */
+    private BufferedImage await(CompletableFuture<BufferedImage> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待圖片解碼被中斷", e);
+        }
+    }
+
+    /**
+     * 讀取記憶體層
+     */
+    private BufferedImage memoryGet(String key) {
+        synchronized (memoryCache) {
+            return memoryCache.get(key);
+        }
+    }
+
+    /**
+     * 寫入記憶體層，超出容量時淘汰最久未使用的項目
+     */
+    private void memoryPut(String key, BufferedImage image) {
+        long weight = weightOf(image);
+        if (weight > maxMemoryBytes) {
+            return;
+        }
+        
+        synchronized (memoryCache) {
+            BufferedImage previous = memoryCache.put(key, image);
+            if (previous != null) {
+                memoryBytes -= weightOf(previous);
+            }
+            memoryBytes += weight;
+            
+            Iterator<Map.Entry<String, BufferedImage>> it = memoryCache.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+                memoryBytes -= weightOf(it.next().getValue());
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 圖片佔用的記憶體大小
+     */
+    private static long weightOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    /**
+     * 統計快照
+     */
+    public record Stats(long hits, long decodes, long evictions, int entries, long memoryBytes, long memoryLimitBytes) {
+    }
+}
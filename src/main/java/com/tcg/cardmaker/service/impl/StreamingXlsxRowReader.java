@@ -0,0 +1,270 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * 串流式XLSX列讀取器
+ * 以 XSSFReader 與共用字串表的事件模型逐列讀取第一個工作表，
+ * 不建立整份活頁簿的DOM，記憶體用量與列數無關
+ */
+class StreamingXlsxRowReader {
+
+    /**
+     * 工作表中的一列
+     * 
+     * @param rowNum 列號 (從0開始)
+     * @param values 固定寬度的儲存格格式化值，空儲存格為空字串
+     */
+    record SheetRow(int rowNum, String[] values) {
+    }
+    
+    // 解析執行緒與讀取端之間的緩衝列數
+    private static final int QUEUE_CAPACITY = 256;
+    
+    // 串流結束標記
+    private static final SheetRow END_OF_SHEET = new SheetRow(-1, new String[0]);
+    
+    private final int columnCount;
+    
+    // 執行SAX解析的工作池
+    private final Executor parseExecutor;
+
+    StreamingXlsxRowReader(int columnCount, Executor parseExecutor) {
+        this.columnCount = columnCount;
+        this.parseExecutor = parseExecutor;
+    }
+
+    /**
+     * 開啟XLSX串流，回傳逐列拉取的迭代器
+     * 輸入會先寫入暫存檔，讓 OPCPackage 以隨機存取方式開啟而不必整包載入記憶體；
+     * 檔案格式在此同步驗證，之後由解析工作池解析並經有界佇列交給讀取端
+     * 
+     * @param inputStream XLSX檔案串流
+     * @return 列迭代器，使用完畢必須關閉
+     * @throws IOException 讀取或格式錯誤，或解析工作池已滿時拋出異常
+     */
+    RowIterator open(InputStream inputStream) throws IOException {
+        Path tempFile = Files.createTempFile("tcg-cards-", ".xlsx");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ);
+            RowIterator rows = new RowIterator(pkg, tempFile);
+            try {
+                parseExecutor.execute(rows::produce);
+            } catch (RejectedExecutionException e) {
+                pkg.revert();
+                throw new IOException("XLSX解析工作已滿，請稍後再試", e);
+            }
+            return rows;
+        } catch (OpenXML4JException e) {
+            Files.deleteIfExists(tempFile);
+            throw new IOException("XLSX解析失敗: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 以事件模型解析第一個工作表
+     */
+    private void parseFirstSheet(OPCPackage pkg, XSSFSheetXMLHandler.SheetContentsHandler contents) throws IOException {
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), strings, contents, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("XLSX解析失敗: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 逐列拉取的迭代器
+     * 解析工作池解析工作表並放入有界佇列；佇列滿時解析端等待，讀取端關閉時解析隨即中止
+     */
+    class RowIterator implements Iterator<SheetRow>, Closeable {
+        
+        private final BlockingQueue<SheetRow> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final OPCPackage pkg;
+        private final Path tempFile;
+        private volatile boolean closed;
+        private volatile IOException failure;
+        private SheetRow next;
+
+        RowIterator(OPCPackage pkg, Path tempFile) {
+            this.pkg = pkg;
+            this.tempFile = tempFile;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = take();
+            }
+            return next != END_OF_SHEET;
+        }
+
+        @Override
+        public SheetRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SheetRow row = next;
+            next = null;
+            return row;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+        }
+
+        /**
+         * 取出下一列，解析失敗時拋出
+         */
+        private SheetRow take() {
+            try {
+                SheetRow row = queue.take();
+                if (row == END_OF_SHEET && failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+                return row;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new IOException("讀取XLSX被中斷", e));
+            }
+        }
+
+        /**
+         * 解析工作表 (於解析工作池執行)
+         */
+        private void produce() {
+            try {
+                parseFirstSheet(pkg, new RowCollector(this::put));
+            } catch (IOException e) {
+                failure = e;
+            } catch (ParsingCancelled e) {
+                // 讀取端已關閉
+            } catch (RuntimeException e) {
+                failure = new IOException("XLSX解析失敗: " + e.getMessage(), e);
+            } finally {
+                pkg.revert();
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // 暫存檔刪除失敗不影響結果
+                }
+                try {
+                    put(END_OF_SHEET);
+                } catch (ParsingCancelled ignored) {
+                    // 讀取端已關閉，不需結束標記
+                }
+            }
+        }
+
+        /**
+         * 放入佇列，佇列滿時等待；讀取端關閉後中止解析
+         */
+        private void put(SheetRow row) {
+            try {
+                while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        throw new ParsingCancelled();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParsingCancelled();
+            }
+        }
+    }
+
+    /**
+     * 讀取端關閉時用於中止SAX解析
+     */
+    private static class ParsingCancelled extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        ParsingCancelled() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * 將儲存格事件組合為固定寬度的列
+     */
+    private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        
+        private final Consumer<SheetRow> sink;
+        private final String[] values = new String[columnCount];
+        private int nextColumn;
+
+        RowCollector(Consumer<SheetRow> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, "");
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < columnCount && formattedValue != null) {
+                values[column] = formattedValue.trim();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            sink.accept(new SheetRow(rowNum, values.clone()));
+        }
+    }
+}
@@ -1,27 +1,55 @@
 package com.tcg.cardmaker.service.impl;
 
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
 import java.awt.Color;
-import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.GraphicsEnvironment;
 import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
-import javax.imageio.ImageIO;
-
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import com.tcg.cardmaker.model.TcgCard;
 import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
@@ -38,57 +66,564 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
     
 
 
-    // 卡片尺寸常數
-    private static final int CARD_WIDTH = 400;
-    private static final int CARD_HEIGHT = 560;
+    // 渲染器版本，繪製邏輯變更時需提升以使快取失效
+    static final String RENDERER_VERSION = "3";
+
+    // 卡片尺寸常數 (邏輯座標，實際像素為乘上縮放比例後的大小)
+    static final int CARD_WIDTH = 400;
+    static final int CARD_HEIGHT = 560;
     private static final int BORDER_WIDTH = 10;
     private static final int CORNER_RADIUS = 20;
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(BORDER_WIDTH);
     
-    // 支援的輸出格式
-    private static final String[] SUPPORTED_FORMATS = {"PNG", "JPG", "JPEG"};
+    // 插圖區域位置 (邏輯座標)
+    private static final int ART_BOX_X = 30;
+    private static final int ART_BOX_Y = 80;
+    
+    // 閒置畫布池的檢查間隔
+    private static final long CANVAS_TRIM_INTERVAL_SECONDS = 60;
     
     // 顏色配置
     private final Map<String, Color> rarityColors = initRarityColors();
     private final Map<String, Color> typeColors = initTypeColors();
+    
+    // 字體註冊表
+    private final CardFontRegistry fontRegistry;
+    
+    // 已渲染卡片快取
+    private final CardRenderCache renderCache;
+    
+    // 插圖原始檔快取 (提供快取鍵所需的內容摘要)
+    private final ArtworkCache artworkCache;
+    
+    // 已縮放插圖存放區
+    private final ScaledArtworkStore scaledArtworkStore;
+    
+    // 圖片編碼器
+    private final CardImageEncoder imageEncoder;
+    
+    // 文字排版快取
+    private final CardTextLayoutCache textLayoutCache;
+    
+    // 渲染准入控制
+    private final RenderAdmissionGate admissionGate;
+    
+    // 監控指標：各渲染階段耗時、卡片數及輸出大小
+    private final Timer fetchTimer;
+    private final Timer drawTimer;
+    private final Timer encodeTimer;
+    private final Counter renderedCounter;
+    private final Counter cachedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary outputBytes;
+    
+    // 卡片框架模板快取容量 (模板大小隨縮放比例變化，以位元組計算)
+    @Value("${tcg.render.frame-cache-memory-size:32MB}")
+    private DataSize frameCacheMemorySize;
+    
+    // 卡片框架模板 (背景與邊框只取決於稀有度色與邊框色，LRU存取順序)
+    private final Map<FrameKey, int[]> frameTemplates = new LinkedHashMap<>(16, 0.75f, true);
+    private long frameTemplateBytes;
+    
+    // 批量渲染執行緒數 (0 表示依CPU核心數)
+    @Value("${tcg.render.threads:0}")
+    private int renderThreads;
+    
+    // 批量渲染工作池
+    private ExecutorService renderExecutor;
+    
+    // 同時進行中的渲染數上限 (保持工作池忙碌，同時限制記憶體用量)
+    private int renderWindowSize;
+    
+    // 可重複使用的畫布池 (畫布、圖形上下文及編碼緩衝區)，只為預設及設定的縮放比例建立
+    private final Map<Float, CanvasPool> canvasPools = new ConcurrentHashMap<>();
+    
+    // 畫布池中閒置畫布的像素位元組總數
+    private final AtomicLong pooledCanvasBytes = new AtomicLong();
+    
+    // 除預設縮放比例外，另外保留畫布池及框架模板的縮放比例
+    @Value("${tcg.render.pooled-scales:}")
+    private float[] extraPooledScales;
+    
+    // 畫布池容量 (所有縮放比例合計)
+    @Value("${tcg.render.canvas-pool.memory-size:64MB}")
+    private DataSize canvasPoolMemorySize;
+    
+    // 畫布池閒置超過此時間即釋放其畫布
+    @Value("${tcg.render.canvas-pool.idle-timeout:5m}")
+    private Duration canvasPoolIdleTimeout;
+    
+    // 保留畫布池及框架模板的縮放比例
+    private Set<Float> pooledScales;
+    
+    // 定期釋放閒置的畫布池
+    private ScheduledExecutorService canvasTrimExecutor;
+    
+    // 預設輸出尺寸，換算為相對於 400x560 的縮放比例
+    @Value("${tcg.image.width:400}")
+    private int imageWidth;
+    
+    @Value("${tcg.image.height:560}")
+    private int imageHeight;
+    
+    // 允許的最大縮放比例
+    @Value("${tcg.image.max-scale:4}")
+    private float maxScale;
+    
+    private float defaultScale;
+
+    public TcgCardImageGeneratorService(CardFontRegistry fontRegistry, CardRenderCache renderCache,
+                                        ArtworkCache artworkCache, ScaledArtworkStore scaledArtworkStore,
+                                        CardImageEncoder imageEncoder,
+                                        CardTextLayoutCache textLayoutCache, RenderAdmissionGate admissionGate,
+                                        MeterRegistry meterRegistry) {
+        this.fontRegistry = fontRegistry;
+        this.renderCache = renderCache;
+        this.artworkCache = artworkCache;
+        this.scaledArtworkStore = scaledArtworkStore;
+        this.imageEncoder = imageEncoder;
+        this.textLayoutCache = textLayoutCache;
+        this.admissionGate = admissionGate;
+        this.fetchTimer = stageTimer(meterRegistry, "fetch");
+        this.drawTimer = stageTimer(meterRegistry, "draw");
+        this.encodeTimer = stageTimer(meterRegistry, "encode");
+        this.renderedCounter = meterRegistry.counter("tcg.render.cards", "outcome", "rendered");
+        this.cachedCounter = meterRegistry.counter("tcg.render.cards", "outcome", "cached");
+        this.failedCounter = meterRegistry.counter("tcg.render.cards", "outcome", "failed");
+        this.outputBytes = DistributionSummary.builder("tcg.render.bytes")
+                .description("已編碼卡片圖片大小")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        meterRegistry.gauge("tcg.render.canvas-pool.bytes", pooledCanvasBytes);
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("tcg.render.stage")
+                .description("單張卡片各渲染階段耗時")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 初始化批量渲染工作池
+     */
+    @PostConstruct
+    void initRenderExecutor() {
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        renderExecutor = Executors.newFixedThreadPool(threads, renderThreadFactory());
+        renderWindowSize = threads * 2;
+        log.info("批量渲染工作池已啟動，執行緒數: {}", threads);
+        
+        canvasTrimExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "canvas-pool-trim");
+            thread.setDaemon(true);
+            return thread;
+        });
+        canvasTrimExecutor.scheduleWithFixedDelay(this::trimIdleCanvasPools,
+                CANVAS_TRIM_INTERVAL_SECONDS, CANVAS_TRIM_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 依設定的輸出尺寸計算預設縮放比例 (等比例，取可容納於該尺寸的最大比例)
+     */
+    @PostConstruct
+    void initDefaultScale() {
+        defaultScale = Math.min((float) imageWidth / CARD_WIDTH, (float) imageHeight / CARD_HEIGHT);
+        if (!isSupportedScale(defaultScale)) {
+            throw new IllegalStateException("不支援的輸出尺寸: " + imageWidth + "x" + imageHeight);
+        }
+        log.info("卡片輸出尺寸: {}x{} (縮放比例 {})", scaled(CARD_WIDTH, defaultScale), scaled(CARD_HEIGHT, defaultScale), defaultScale);
+        
+        Set<Float> scales = new HashSet<>();
+        scales.add(defaultScale);
+        for (float scale : extraPooledScales) {
+            if (isSupportedScale(scale)) {
+                scales.add(scale);
+            }
+        }
+        pooledScales = Set.copyOf(scales);
+    }
+
+    /**
+     * 關閉批量渲染工作池
+     */
+    @PreDestroy
+    void shutdownRenderExecutor() throws InterruptedException {
+        canvasTrimExecutor.shutdownNow();
+        renderExecutor.shutdown();
+        if (!renderExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            renderExecutor.shutdownNow();
+        }
+    }
 
     @Override
     public byte[] generateCardImage(TcgCard card) throws IOException {
-        log.info("開始生成卡片圖片: {}", card.getName());
+        return generateCardImage(card, defaultScale, CardImageEncoder.Profile.PREVIEW, true);
+    }
+
+    @Override
+    public byte[] generateCardImage(TcgCard card, float scale) throws IOException {
+        checkScale(scale);
+        return generateCardImage(card, scale, CardImageEncoder.Profile.PREVIEW, true);
+    }
+
+    /**
+     * 依縮放比例及編碼用途生成卡片圖片，優先使用快取
+     * 未命中快取時需先取得渲染許可：互動請求最多等待設定時間，批量工作則排隊等待
+     */
+    private byte[] generateCardImage(TcgCard card, float scale, CardImageEncoder.Profile profile,
+                                     boolean interactive) throws IOException {
+        return generateCardImage(card, artworkDigest(card), scale, profile, interactive);
+    }
+
+    /**
+     * 以已知的插圖內容摘要生成卡片圖片
+     * 摘要為 null (插圖無法載入) 時不查詢也不寫入快取；
+     * 改繪占位圖或渲染期間插圖內容已變更時同樣不寫入，避免暫時性失敗或舊插圖被長期保留
+     */
+    private byte[] generateCardImage(TcgCard card, String artworkDigest, float scale,
+                                     CardImageEncoder.Profile profile, boolean interactive) throws IOException {
+        String cacheKey = artworkDigest != null
+                ? CardRenderCache.keyOf(card, artworkDigest, renderVariant(scale, profile)) : null;
+        byte[] cached = cacheKey != null ? renderCache.get(cacheKey) : null;
+        if (cached != null) {
+            log.debug("卡片圖片快取命中: {}", card.getName());
+            cachedCounter.increment();
+            return cached;
+        }
+        
+        // 取得許可失敗 (拒絕或中斷) 不計入渲染失敗
+        RenderAdmissionGate.Permit permit = interactive ? admissionGate.tryAcquire() : admissionGate.acquire();
+        RenderedCard rendered;
+        try {
+            rendered = renderCardImage(card, scale, profile);
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            throw e;
+        } finally {
+            permit.close();
+        }
+        renderedCounter.increment();
+        outputBytes.record(rendered.imageBytes().length);
+        if (cacheKey != null && !rendered.placeholder() && artworkDigest.equals(currentArtworkDigest(card))) {
+            renderCache.put(cacheKey, rendered.imageBytes());
+        }
+        return rendered.imageBytes();
+    }
+
+    /**
+     * 取得卡片插圖的內容摘要，摘要未知或需重新驗證時載入插圖
+     * 
+     * @return 內容摘要，無插圖時為空字串，無法載入時為 null
+     */
+    private String artworkDigest(TcgCard card) {
+        String digest = currentArtworkDigest(card);
+        if (digest != null) {
+            return digest;
+        }
+        try {
+            return artworkCache.load(card.getImageUrl()).digest();
+        } catch (IOException | RuntimeException e) {
+            log.debug("無法取得插圖摘要，不使用渲染快取: {} ({})", card.getImageUrl(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 目前已知且仍有效的插圖內容摘要 (不載入插圖)
+     * 
+     * @return 內容摘要，無插圖時為空字串，未知時為 null
+     */
+    private String currentArtworkDigest(TcgCard card) {
+        if (!hasArtwork(card)) {
+            return "";
+        }
+        return artworkCache.cachedDigest(card.getImageUrl());
+    }
+
+    private static boolean hasArtwork(TcgCard card) {
+        return card.getImageUrl() != null && !card.getImageUrl().trim().isEmpty();
+    }
+
+    /**
+     * 實際繪製並編碼卡片圖片
+     * 以縮放後的圖形上下文在邏輯座標繪製一次，直接得到目標解析度
+     */
+    private RenderedCard renderCardImage(TcgCard card, float scale, CardImageEncoder.Profile profile) throws IOException {
+        log.debug("開始生成卡片圖片: {}", card.getName());
         
-        // 創建畫布
-        BufferedImage cardImage = createCanvas();
-        Graphics2D g2d = createGraphics(cardImage);
+        // 載入已縮放的插圖
+        long start = System.nanoTime();
+        BufferedImage artwork = loadArtwork(card, scale);
+        boolean placeholder = artwork == null && hasArtwork(card);
+        long drawStart = System.nanoTime();
+        fetchTimer.record(drawStart - start, TimeUnit.NANOSECONDS);
         
+        // 取得畫布並繪製框架 (背景與邊框)：保留畫布池的縮放比例複製模板，模板覆蓋所有像素因此無需清除；
+        // 其他縮放比例使用新畫布，框架直接繪製 (結果與模板相同)
+        RenderCanvas canvas = borrowCanvas(scale);
         try {
+            Graphics2D g2d = canvas.resetGraphics();
+            if (pooledScales.contains(scale)) {
+                paintFrame(canvas.pixels, card, scale);
+            } else {
+                drawCardBackground(g2d, rarityColors.getOrDefault(card.getRarity(), Color.LIGHT_GRAY));
+                drawCardBorder(g2d, getBorderColor(card));
+                g2d = canvas.resetGraphics();
+            }
+            
             // 繪製卡片各部分
-            drawCardBackground(g2d, card);
-            drawCardBorder(g2d, card);
-            drawCardImage(g2d, card);
+            drawCardImage(g2d, artwork, scale);
             drawCardContent(g2d, card);
+            long encodeStart = System.nanoTime();
+            drawTimer.record(encodeStart - drawStart, TimeUnit.NANOSECONDS);
             
             // 轉換為byte陣列
-            return imageToByteArray(cardImage);
+            byte[] imageBytes = canvas.encoder.encode(canvas.image, profile);
+            encodeTimer.record(System.nanoTime() - encodeStart, TimeUnit.NANOSECONDS);
+            return new RenderedCard(imageBytes, placeholder);
             
         } finally {
-            g2d.dispose();
+            releaseCanvas(canvas);
+        }
+    }
+
+    /**
+     * 從對應縮放比例的畫布池取得畫布，池中沒有時建立新畫布
+     */
+    private RenderCanvas borrowCanvas(float scale) {
+        CanvasPool pool = canvasPools.get(scale);
+        RenderCanvas canvas = null;
+        if (pool != null) {
+            pool.lastUsedNanos = System.nanoTime();
+            canvas = pool.canvases.poll();
+            if (canvas != null) {
+                pooledCanvasBytes.addAndGet(-canvas.weight());
+            }
+        }
+        if (canvas == null) {
+            BufferedImage image = createCanvas(scale);
+            canvas = new RenderCanvas(image, createGraphics(image), scale, imageEncoder.newSession());
+        }
+        return canvas;
+    }
+
+    /**
+     * 歸還畫布；不保留畫布池的縮放比例、池已滿或超出畫布池容量時釋放
+     */
+    private void releaseCanvas(RenderCanvas canvas) {
+        CanvasPool pool = null;
+        if (pooledScales.contains(canvas.scale)) {
+            pool = canvasPools.computeIfAbsent(canvas.scale, s -> new CanvasPool(renderWindowSize));
+        }
+        long weight = canvas.weight();
+        if (pool == null || pooledCanvasBytes.addAndGet(weight) > canvasPoolMemorySize.toBytes()) {
+            if (pool != null) {
+                pooledCanvasBytes.addAndGet(-weight);
+            }
+            canvas.dispose();
+        } else if (!pool.canvases.offer(canvas)) {
+            pooledCanvasBytes.addAndGet(-weight);
+            canvas.dispose();
+        }
+    }
+
+    /**
+     * 釋放閒置超過設定時間的畫布池中的畫布 (定期執行)
+     */
+    void trimIdleCanvasPools() {
+        long idleBefore = System.nanoTime() - canvasPoolIdleTimeout.toNanos();
+        canvasPools.forEach((scale, pool) -> {
+            if (pool.lastUsedNanos - idleBefore >= 0) {
+                return;
+            }
+            int released = 0;
+            RenderCanvas canvas;
+            while ((canvas = pool.canvases.poll()) != null) {
+                pooledCanvasBytes.addAndGet(-canvas.weight());
+                canvas.dispose();
+                released++;
+            }
+            if (released > 0) {
+                log.debug("已釋放閒置畫布池: 縮放比例 {}，{} 個畫布", scale, released);
+            }
+        });
+    }
+
+    @Override
+    public void renderEach(Iterable<TcgCard> cards, RenderResultHandler handler) throws IOException {
+        renderEach(cards, defaultScale, handler);
+    }
+
+    @Override
+    public void renderEach(Iterable<TcgCard> cards, float scale, RenderResultHandler handler) throws IOException {
+        checkScale(scale);
+        render(cards, card -> card,
+                card -> () -> generateCardImage(card, scale, CardImageEncoder.Profile.ARCHIVE, false), handler);
+    }
+
+    @Override
+    public void renderEachWithArtwork(Iterable<CardWithArtwork> cards, float scale,
+                                      RenderResultHandler handler) throws IOException {
+        checkScale(scale);
+        render(cards, CardWithArtwork::card, item -> () -> generateCardImage(item.card(), item.artworkDigest(),
+                scale, CardImageEncoder.Profile.ARCHIVE, false), handler);
+    }
+
+    /**
+     * 以固定大小的視窗平行渲染，並依輸入順序逐張交給處理器
+     */
+    private <T> void render(Iterable<T> items, Function<T, TcgCard> cardOf, Function<T, Callable<byte[]>> taskOf,
+                            RenderResultHandler handler) throws IOException {
+        Deque<PendingRender> window = new ArrayDeque<>(renderWindowSize);
+        int index = 0;
+        int[] failures = {0};
+        long startTime = System.currentTimeMillis();
+        
+        // 逐張結果只計數，整批完成後輸出一筆摘要
+        RenderResultHandler counting = result -> {
+            if (!result.isSuccess()) {
+                failures[0]++;
+            }
+            handler.handle(result);
+        };
+        
+        try {
+            for (T item : items) {
+                window.addLast(new PendingRender(index++, cardOf.apply(item), renderExecutor.submit(taskOf.apply(item))));
+                
+                // 視窗已滿時，先交出最早的結果再提交新卡片
+                if (window.size() >= renderWindowSize) {
+                    counting.handle(awaitResult(window.removeFirst()));
+                }
+            }
+            
+            while (!window.isEmpty()) {
+                counting.handle(awaitResult(window.removeFirst()));
+            }
+        } finally {
+            // 處理器失敗或中斷時取消其餘渲染
+            window.forEach(pending -> pending.future().cancel(true));
+            log.info("批量渲染完成: {} 張卡片，失敗 {}，耗時 {} ms",
+                    index, failures[0], System.currentTimeMillis() - startTime);
         }
     }
 
     @Override
     public String[] getSupportedFormats() {
-        return SUPPORTED_FORMATS.clone();
+        return imageEncoder.getSupportedFormats();
+    }
+
+    @Override
+    public String getContentType() {
+        return imageEncoder.getContentType();
+    }
+
+    @Override
+    public String getFileExtension() {
+        return imageEncoder.getFileExtension();
     }
 
     @Override
     public int[] getDefaultDimensions() {
-        return new int[]{CARD_WIDTH, CARD_HEIGHT};
+        return new int[]{scaled(CARD_WIDTH, defaultScale), scaled(CARD_HEIGHT, defaultScale)};
+    }
+
+    @Override
+    public float getDefaultScale() {
+        return defaultScale;
+    }
+
+    @Override
+    public String getRenderVariant(float scale) {
+        return renderVariant(scale, CardImageEncoder.Profile.ARCHIVE);
+    }
+
+    private String renderVariant(float scale, CardImageEncoder.Profile profile) {
+        return RENDERER_VERSION + "/" + imageEncoder.variant(profile) + "@" + scale + "x";
+    }
+
+    @Override
+    public void drawCard(TcgCard card, Graphics2D g2d, float scale) {
+        checkScale(scale);
+        BufferedImage artwork = loadArtwork(card, scale);
+        
+        AffineTransform origin = g2d.getTransform();
+        Shape clip = g2d.getClip();
+        Stroke stroke = g2d.getStroke();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.clipRect(0, 0, scaled(CARD_WIDTH, scale), scaled(CARD_HEIGHT, scale));
+            g2d.scale(scale, scale);
+            
+            // 與單張渲染相同的繪製步驟，框架直接以向量繪製而非複製模板像素
+            drawCardBackground(g2d, rarityColors.getOrDefault(card.getRarity(), Color.LIGHT_GRAY));
+            drawCardBorder(g2d, getBorderColor(card));
+            g2d.setStroke(stroke);
+            drawCardImage(g2d, artwork, scale);
+            drawCardContent(g2d, card);
+        } finally {
+            g2d.setTransform(origin);
+            g2d.setClip(clip);
+            g2d.setStroke(stroke);
+        }
+    }
+
+    @Override
+    public boolean isSupportedScale(float scale) {
+        return scale > 0 && scale <= maxScale;
+    }
+
+    /**
+     * 檢查縮放比例
+     */
+    private void checkScale(float scale) {
+        if (!isSupportedScale(scale)) {
+            throw new IllegalArgumentException("縮放比例須大於 0 且不超過 " + maxScale + ": " + scale);
+        }
+    }
+
+    /**
+     * 邏輯長度換算為像素
+     */
+    static int scaled(int length, float scale) {
+        return Math.round(length * scale);
+    }
+
+    /**
+     * 等待單張卡片渲染完成，將失敗轉為結果而不拋出
+     */
+    private RenderResult awaitResult(PendingRender pending) {
+        try {
+            return new RenderResult(pending.index(), pending.card(), pending.future().get(), null);
+        } catch (ExecutionException e) {
+            Exception cause = e.getCause() instanceof Exception ex ? ex : e;
+            return new RenderResult(pending.index(), pending.card(), null, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("批量渲染被中斷", e);
+        }
+    }
+
+    /**
+     * 批量渲染執行緒工廠
+     */
+    private static ThreadFactory renderThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "card-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
      * 創建畫布
      */
-    private BufferedImage createCanvas() {
-        return new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    private BufferedImage createCanvas(float scale) {
+        return new BufferedImage(scaled(CARD_WIDTH, scale), scaled(CARD_HEIGHT, scale), BufferedImage.TYPE_INT_RGB);
     }
 
     /**
@@ -105,16 +640,81 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
         return g2d;
     }
 
+    /**
+     * 將卡片框架模板複製至畫布
+     */
+    private void paintFrame(int[] pixels, TcgCard card, float scale) {
+        FrameKey key = new FrameKey(rarityColors.getOrDefault(card.getRarity(), Color.LIGHT_GRAY), getBorderColor(card), scale);
+        int[] template = getFrameTemplate(key);
+        System.arraycopy(template, 0, pixels, 0, template.length);
+    }
+
+    /**
+     * 取得卡片框架模板，不存在時繪製一次並快取
+     * 超出容量時淘汰最久未使用的模板，單一模板超出容量時不快取
+     */
+    private int[] getFrameTemplate(FrameKey key) {
+        synchronized (frameTemplates) {
+            int[] template = frameTemplates.get(key);
+            if (template != null) {
+                return template;
+            }
+        }
+        
+        // 鎖外繪製，同時建立相同模板時保留先完成者
+        int[] rendered = renderFrameTemplate(key);
+        long maxBytes = frameCacheMemorySize.toBytes();
+        if (templateWeight(rendered) > maxBytes) {
+            return rendered;
+        }
+        synchronized (frameTemplates) {
+            int[] template = frameTemplates.putIfAbsent(key, rendered);
+            if (template != null) {
+                return template;
+            }
+            frameTemplateBytes += templateWeight(rendered);
+            Iterator<int[]> eldest = frameTemplates.values().iterator();
+            while (frameTemplateBytes > maxBytes && eldest.hasNext()) {
+                frameTemplateBytes -= templateWeight(eldest.next());
+                eldest.remove();
+            }
+            return rendered;
+        }
+    }
+
+    /**
+     * 框架模板佔用的記憶體大小
+     */
+    private static long templateWeight(int[] template) {
+        return (long) template.length * Integer.BYTES;
+    }
+
+    /**
+     * 繪製卡片框架模板像素
+     */
+    private int[] renderFrameTemplate(FrameKey key) {
+        BufferedImage frame = createCanvas(key.scale());
+        Graphics2D g2d = createGraphics(frame);
+        try {
+            g2d.scale(key.scale(), key.scale());
+            drawCardBackground(g2d, key.background());
+            drawCardBorder(g2d, key.border());
+        } finally {
+            g2d.dispose();
+        }
+        log.debug("已建立卡片框架模板: {}", key);
+        return ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+    }
+
     /**
      * 繪製卡片背景
      */
-    private void drawCardBackground(Graphics2D g2d, TcgCard card) {
+    private void drawCardBackground(Graphics2D g2d, Color rarityColor) {
         // 基礎背景
         g2d.setColor(Color.WHITE);
         g2d.fillRoundRect(0, 0, CARD_WIDTH, CARD_HEIGHT, CORNER_RADIUS, CORNER_RADIUS);
         
         // 根據稀有度設置背景漸層
-        Color rarityColor = rarityColors.getOrDefault(card.getRarity(), Color.LIGHT_GRAY);
         g2d.setColor(rarityColor);
         g2d.fillRoundRect(BORDER_WIDTH, BORDER_WIDTH, 
                          CARD_WIDTH - 2 * BORDER_WIDTH, CARD_HEIGHT - 2 * BORDER_WIDTH,
@@ -124,10 +724,9 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
     /**
      * 繪製卡片邊框
      */
-    private void drawCardBorder(Graphics2D g2d, TcgCard card) {
-        Color borderColor = getBorderColor(card);
+    private void drawCardBorder(Graphics2D g2d, Color borderColor) {
         g2d.setColor(borderColor);
-        g2d.setStroke(new java.awt.BasicStroke(BORDER_WIDTH));
+        g2d.setStroke(BORDER_STROKE);
         g2d.drawRoundRect(BORDER_WIDTH / 2, BORDER_WIDTH / 2,
                          CARD_WIDTH - BORDER_WIDTH, CARD_HEIGHT - BORDER_WIDTH,
                          CORNER_RADIUS, CORNER_RADIUS);
@@ -136,40 +735,44 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
     /**
      * 繪製卡片圖片
      */
-    private void drawCardImage(Graphics2D g2d, TcgCard card) {
-        if (card.getImageUrl() == null || card.getImageUrl().trim().isEmpty()) {
+    private void drawCardImage(Graphics2D g2d, BufferedImage artwork, float scale) {
+        if (artwork == null) {
             drawPlaceholderImage(g2d);
             return;
         }
 
+        // 圖片顯示區域 (像素)，插圖已縮放至目標解析度，以像素座標 (只保留平移) 繪製避免再次取樣
+        int imgX = scaled(ART_BOX_X, scale);
+        int imgY = scaled(ART_BOX_Y, scale);
+        int imgWidth = scaled(ScaledArtworkStore.ART_BOX_WIDTH, scale);
+        int imgHeight = scaled(ScaledArtworkStore.ART_BOX_HEIGHT, scale);
+        
+        // 居中顯示
+        int centerX = imgX + (imgWidth - artwork.getWidth()) / 2;
+        int centerY = imgY + (imgHeight - artwork.getHeight()) / 2;
+        
+        AffineTransform transform = g2d.getTransform();
+        g2d.setTransform(AffineTransform.getTranslateInstance(transform.getTranslateX(), transform.getTranslateY()));
+        g2d.drawImage(artwork, centerX, centerY, null);
+        g2d.setTransform(transform);
+    }
+
+    /**
+     * 取得已等比例縮放至顯示區域的插圖
+     * 
+     * @return 插圖，未設定或載入失敗時回傳 null (改繪製占位圖)
+     */
+    private BufferedImage loadArtwork(TcgCard card, float scale) {
+        if (!hasArtwork(card)) {
+            return null;
+        }
+        
         try {
-            BufferedImage cardImg = loadCardImage(card.getImageUrl());
-            if (cardImg != null) {
-                // 圖片顯示區域
-                int imgX = 30;
-                int imgY = 80;
-                int imgWidth = CARD_WIDTH - 60;
-                int imgHeight = 200;
-                
-                // 計算縮放比例，保持比例
-                double scaleX = (double) imgWidth / cardImg.getWidth();
-                double scaleY = (double) imgHeight / cardImg.getHeight();
-                double scale = Math.min(scaleX, scaleY);
-                
-                int scaledWidth = (int) (cardImg.getWidth() * scale);
-                int scaledHeight = (int) (cardImg.getHeight() * scale);
-                
-                // 居中顯示
-                int centerX = imgX + (imgWidth - scaledWidth) / 2;
-                int centerY = imgY + (imgHeight - scaledHeight) / 2;
-                
-                g2d.drawImage(cardImg, centerX, centerY, scaledWidth, scaledHeight, null);
-            } else {
-                drawPlaceholderImage(g2d);
-            }
+            return scaledArtworkStore.get(card.getImageUrl(),
+                    scaled(ScaledArtworkStore.ART_BOX_WIDTH, scale), scaled(ScaledArtworkStore.ART_BOX_HEIGHT, scale));
         } catch (Exception e) {
             log.warn("載入圖片失敗: {}", e.getMessage());
-            drawPlaceholderImage(g2d);
+            return null;
         }
     }
 
@@ -177,29 +780,26 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
      * 繪製卡片文字內容
      */
     private void drawCardContent(Graphics2D g2d, TcgCard card) {
-        Font chineseFont = getChineseFont();
-        
         // 卡片名稱
-        drawCardName(g2d, card.getName(), chineseFont);
+        drawCardName(g2d, card.getName());
         
         // 卡片類型
-        drawCardType(g2d, card.getType(), chineseFont);
+        drawCardType(g2d, card.getType());
         
         // 屬性數值
-        drawCardStats(g2d, card, chineseFont);
+        drawCardStats(g2d, card);
         
         // 描述文字
-        drawCardDescription(g2d, card.getDescription(), chineseFont);
+        drawCardDescription(g2d, card.getDescription());
     }
 
     /**
      * 繪製卡片名稱
      */
-    private void drawCardName(Graphics2D g2d, String name, Font baseFont) {
+    private void drawCardName(Graphics2D g2d, String name) {
         if (name == null) return;
         
-        Font nameFont = baseFont.deriveFont(Font.BOLD, 24f);
-        g2d.setFont(nameFont);
+        g2d.setFont(fontRegistry.getNameFont());
         g2d.setColor(Color.BLACK);
         
         FontMetrics fm = g2d.getFontMetrics();
@@ -212,11 +812,10 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
     /**
      * 繪製卡片類型
      */
-    private void drawCardType(Graphics2D g2d, String type, Font baseFont) {
+    private void drawCardType(Graphics2D g2d, String type) {
         if (type == null) return;
         
-        Font typeFont = baseFont.deriveFont(Font.PLAIN, 18f);
-        g2d.setFont(typeFont);
+        g2d.setFont(fontRegistry.getTypeFont());
         
         Color typeColor = typeColors.getOrDefault(type, Color.BLACK);
         g2d.setColor(typeColor);
@@ -230,9 +829,8 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
     /**
      * 繪製卡片屬性數值
      */
-    private void drawCardStats(Graphics2D g2d, TcgCard card, Font baseFont) {
-        Font statsFont = baseFont.deriveFont(Font.BOLD, 20f);
-        g2d.setFont(statsFont);
+    private void drawCardStats(Graphics2D g2d, TcgCard card) {
+        g2d.setFont(fontRegistry.getStatsFont());
         g2d.setColor(Color.RED);
         
         int y = 380;
@@ -250,11 +848,10 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
     /**
      * 繪製卡片描述
      */
-    private void drawCardDescription(Graphics2D g2d, String description, Font baseFont) {
+    private void drawCardDescription(Graphics2D g2d, String description) {
         if (description == null || description.trim().isEmpty()) return;
         
-        Font descFont = baseFont.deriveFont(Font.PLAIN, 14f);
-        g2d.setFont(descFont);
+        g2d.setFont(fontRegistry.getDescriptionFont());
         g2d.setColor(Color.DARK_GRAY);
         
         // 文字換行處理
@@ -267,86 +864,19 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
 
     /**
      * 繪製換行文字
+     * y 為第一行基線，超出卡片內框的行不繪製
      */
     private void drawWrappedText(Graphics2D g2d, String text, int x, int y, int maxWidth) {
-        FontMetrics fm = g2d.getFontMetrics();
-        String[] words = text.split("\\s+");
-        StringBuilder line = new StringBuilder();
-        int lineHeight = fm.getHeight();
-        int currentY = y;
-        
-        for (String word : words) {
-            String testLine = line.length() == 0 ? word : line + " " + word;
-            if (fm.stringWidth(testLine) <= maxWidth) {
-                line.append(line.length() == 0 ? "" : " ").append(word);
-            } else {
-                if (line.length() > 0) {
-                    g2d.drawString(line.toString(), x, currentY);
-                    currentY += lineHeight;
-                }
-                line = new StringBuilder(word);
-            }
-        }
+        List<TextLayout> lines = textLayoutCache.layout(text, g2d.getFont(), g2d.getFontRenderContext(), maxWidth);
+        int bottom = CARD_HEIGHT - BORDER_WIDTH;
+        float baseline = y;
         
-        if (line.length() > 0) {
-            g2d.drawString(line.toString(), x, currentY);
-        }
-    }
-
-    /**
-     * 載入卡片圖片
-     */
-    private BufferedImage loadCardImage(String imageUrl) {
-        try {
-            if (isLocalFilePath(imageUrl)) {
-                return loadLocalImage(imageUrl);
-            } else {
-                return loadImageFromUrl(imageUrl);
+        for (TextLayout line : lines) {
+            if (baseline + line.getDescent() > bottom) {
+                break;
             }
-        } catch (IOException | RuntimeException e) {
-            log.warn("載入圖片失敗: {}", e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * 判斷是否為本地檔案路徑
-     */
-    private boolean isLocalFilePath(String path) {
-        return path.startsWith("./") || path.startsWith("uploads/") || path.startsWith("\\");
-    }
-
-    /**
-     * 載入本地圖片
-     */
-    private BufferedImage loadLocalImage(String imagePath) throws IOException {
-        Path path = Paths.get(imagePath);
-        if (!Files.exists(path)) {
-            // 嘗試在uploads目錄中尋找
-            path = Paths.get("uploads", "images", Paths.get(imagePath).getFileName().toString());
-        }
-        
-        if (Files.exists(path)) {
-            return ImageIO.read(path.toFile());
-        }
-        
-        throw new IOException("本地圖片不存在: " + imagePath);
-    }
-
-    /**
-     * 從URL載入圖片
-     */
-    private BufferedImage loadImageFromUrl(String imageUrl) throws IOException {
-        URL url = new URL(imageUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestProperty("User-Agent", "TCG Card Maker 1.0");
-        connection.setConnectTimeout(5000);
-        connection.setReadTimeout(10000);
-        
-        try {
-            return ImageIO.read(connection.getInputStream());
-        } finally {
-            connection.disconnect();
+            line.draw(g2d, x, baseline);
+            baseline += line.getAscent() + line.getDescent() + line.getLeading();
         }
     }
 
@@ -354,20 +884,21 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
      * 繪製占位符圖片
      */
     private void drawPlaceholderImage(Graphics2D g2d) {
-        int imgX = 30;
-        int imgY = 80;
-        int imgWidth = CARD_WIDTH - 60;
-        int imgHeight = 200;
+        int imgX = ART_BOX_X;
+        int imgY = ART_BOX_Y;
+        int imgWidth = ScaledArtworkStore.ART_BOX_WIDTH;
+        int imgHeight = ScaledArtworkStore.ART_BOX_HEIGHT;
         
         g2d.setColor(new Color(192, 192, 192));
         g2d.fillRect(imgX, imgY, imgWidth, imgHeight);
         
+        // 占位框線沿用邊框粗細
         g2d.setColor(Color.GRAY);
+        g2d.setStroke(BORDER_STROKE);
         g2d.drawRect(imgX, imgY, imgWidth, imgHeight);
         
         g2d.setColor(Color.DARK_GRAY);
-        Font font = getChineseFont().deriveFont(Font.PLAIN, 18f);
-        g2d.setFont(font);
+        g2d.setFont(fontRegistry.getPlaceholderFont());
         
         String placeholder = "無圖片";
         FontMetrics fm = g2d.getFontMetrics();
@@ -404,38 +935,6 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
         };
     }
 
-    /**
-     * 獲取支援中文的字體
-     */
-    private Font getChineseFont() {
-        String[] fontNames = {
-            "Microsoft JhengHei", "Microsoft YaHei", "SimHei", 
-            "NSimSun", "SimSun", "Dialog", "SansSerif"
-        };
-        
-        GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-        String[] availableFonts = ge.getAvailableFontFamilyNames();
-        
-        for (String fontName : fontNames) {
-            for (String available : availableFonts) {
-                if (available.equals(fontName)) {
-                    return new Font(fontName, Font.PLAIN, 16);
-                }
-            }
-        }
-        
-        return new Font("Dialog", Font.PLAIN, 16);
-    }
-
-    /**
-     * 將圖片轉換為byte陣列
-     */
-    private byte[] imageToByteArray(BufferedImage image) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "PNG", baos);
-        return baos.toByteArray();
-    }
-
     /**
      * 初始化稀有度顏色映射
      */
@@ -459,4 +958,85 @@ public class TcgCardImageGeneratorService implements ImageGeneratorService {
         colors.put("裝備", new Color(255, 140, 0));      // 橙色
         return colors;
     }
+
+    /**
+     * 卡片框架模板鍵
+     */
+    private record FrameKey(Color background, Color border, float scale) {
+    }
+
+    /**
+     * 可重複使用的畫布
+     * 同一時間只由一個渲染執行緒使用，圖形上下文的渲染提示只設定一次，
+     * 並附帶專屬的編碼工作階段 (編碼器及輸出緩衝區)
+     */
+    private static final class RenderCanvas {
+        
+        private static final BasicStroke DEFAULT_STROKE = new BasicStroke();
+        
+        private final BufferedImage image;
+        private final int[] pixels;
+        private final Graphics2D graphics;
+        private final float scale;
+        private final AffineTransform transform;
+        private final CardImageEncoder.Session encoder;
+
+        RenderCanvas(BufferedImage image, Graphics2D graphics, float scale, CardImageEncoder.Session encoder) {
+            this.image = image;
+            this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.graphics = graphics;
+            this.scale = scale;
+            this.transform = AffineTransform.getScaleInstance(scale, scale);
+            this.encoder = encoder;
+        }
+
+        /**
+         * 重設上一張卡片可能變更的圖形狀態，並套用此畫布的縮放比例
+         */
+        Graphics2D resetGraphics() {
+            graphics.setTransform(transform);
+            graphics.setClip(null);
+            graphics.setComposite(AlphaComposite.SrcOver);
+            graphics.setStroke(DEFAULT_STROKE);
+            return graphics;
+        }
+
+        /**
+         * 畫布像素佔用的記憶體大小
+         */
+        long weight() {
+            return (long) pixels.length * Integer.BYTES;
+        }
+
+        void dispose() {
+            graphics.dispose();
+            encoder.dispose();
+        }
+    }
+
+    /**
+     * 單一縮放比例的畫布池
+     */
+    private static final class CanvasPool {
+        
+        private final BlockingQueue<RenderCanvas> canvases;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        CanvasPool(int capacity) {
+            this.canvases = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * 進行中的渲染任務
+     */
+    private record PendingRender(int index, TcgCard card, Future<byte[]> future) {
+    }
+
+    /**
+     * 已編碼的卡片圖片
+     * placeholder：插圖無法載入而改繪占位圖，結果不寫入快取
+     */
+    private record RenderedCard(byte[] imageBytes, boolean placeholder) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,405 @@
+package com.tcg.cardmaker.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.tcg.cardmaker.model.ExportManifest;
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.CardArchiveService;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService.CardWithArtwork;
+
+/**
+ * ZIP卡片打包服務實作
+ * 遵循單一職責原則 (SRP) - 專責將渲染結果寫入ZIP串流
+ */
+@Service
+public class ZipCardArchiveService implements CardArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ZipCardArchiveService.class);
+
+    // 插圖無法載入時記錄的雜湊 (渲染結果為占位圖)
+    private static final String ARTWORK_UNAVAILABLE = "unavailable";
+
+    private final ImageGeneratorService imageGeneratorService;
+    private final ArtworkPrefetcher artworkPrefetcher;
+
+    // 指標：ZIP寫出耗時、寫入/跳過/沿用張數與輸出位元組
+    private final Timer entryWriteTimer;
+    private final Counter writtenCounter;
+    private final Counter skippedCounter;
+    private final Counter reusedCounter;
+    private final Counter bytesCounter;
+
+    public ZipCardArchiveService(ImageGeneratorService imageGeneratorService,
+                                 ArtworkPrefetcher artworkPrefetcher,
+                                 MeterRegistry meterRegistry) {
+        this.imageGeneratorService = imageGeneratorService;
+        this.artworkPrefetcher = artworkPrefetcher;
+        this.entryWriteTimer = Timer.builder("tcg.archive.entry.write")
+                .description("單張卡片寫入ZIP串流耗時")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("tcg.archive.cards").tag("outcome", "written").register(meterRegistry);
+        this.skippedCounter = Counter.builder("tcg.archive.cards").tag("outcome", "skipped").register(meterRegistry);
+        this.reusedCounter = Counter.builder("tcg.archive.cards").tag("outcome", "reused").register(meterRegistry);
+        this.bytesCounter = Counter.builder("tcg.archive.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int writeArchive(List<TcgCard> cards, OutputStream outputStream) throws IOException {
+        return writeArchive(cards, imageGeneratorService.getDefaultScale(), outputStream);
+    }
+
+    @Override
+    public int writeArchive(List<TcgCard> cards, float scale, OutputStream outputStream) throws IOException {
+        // 先平行預取所有插圖，渲染時直接取用或合併至進行中的下載
+        artworkPrefetcher.prefetch(cards);
+
+        return writeArchive(cards, scale, outputStream, result -> { }, null, null);
+    }
+
+    @Override
+    public int writeArchive(Iterable<TcgCard> cards, OutputStream outputStream,
+                            ArchiveProgressListener listener) throws IOException {
+        return writeArchive(cards, imageGeneratorService.getDefaultScale(), outputStream, listener, null, null);
+    }
+
+    @Override
+    public ExportManifest writeDeltaArchive(Iterable<TcgCard> cards, OutputStream outputStream,
+                                            ArchiveProgressListener listener, ArchiveBaseline baseline,
+                                            String archiveName) throws IOException {
+        ExportManifest manifest = new ExportManifest(archiveName);
+        ZipFile baselineZip = openBaseline(baseline);
+        try {
+            writeArchive(cards, imageGeneratorService.getDefaultScale(), outputStream, listener,
+                    baselineZip != null ? new Baseline(baselineZip, baseline.manifest()) : null, manifest);
+        } finally {
+            if (baselineZip != null) {
+                baselineZip.close();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * 以指定縮放比例渲染並寫出ZIP串流
+     * 有清單時逐張計算內容雜湊並記錄；有基準時內容未變更的卡片直接複製基準ZIP中的項目
+     */
+    private int writeArchive(Iterable<TcgCard> cards, float scale, OutputStream outputStream,
+                             ArchiveProgressListener listener, Baseline baseline,
+                             ExportManifest manifest) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int[] counts = {0, 0, 0};
+
+        ZipArchiveOutputStream zos = new ZipArchiveOutputStream(outputStream);
+        String variant = manifest != null ? imageGeneratorService.getRenderVariant(scale) : null;
+
+        // 送交渲染的卡片，渲染結果依輸入順序送回
+        Deque<PendingEntry> pending = new ArrayDeque<>();
+        Iterable<CardWithArtwork> toRender = () -> new DeltaIterator(cards.iterator(), variant, baseline, manifest,
+                zos, listener, pending, counts);
+
+        ImageGeneratorService.RenderResultHandler handler = result -> {
+            PendingEntry entry = pending.removeFirst();
+            TcgCard card = result.getCard();
+            if (!result.isSuccess()) {
+                log.warn("生成卡片失敗，跳過: {}", card.getName(), result.getError());
+                counts[1]++;
+                skippedCounter.increment();
+                listener.onCardProcessed(result);
+                return;
+            }
+
+            String filename = entryName(entry.index(), card);
+            long writeStart = System.nanoTime();
+            zos.putArchiveEntry(new ZipArchiveEntry(filename));
+            zos.write(result.getImageBytes());
+            zos.closeArchiveEntry();
+
+            // 每張卡片完成即送出，讓客戶端盡早收到資料
+            zos.flush();
+            entryWriteTimer.record(System.nanoTime() - writeStart, TimeUnit.NANOSECONDS);
+            counts[0]++;
+            writtenCounter.increment();
+            bytesCounter.increment(result.getImageBytes().length);
+            if (manifest != null) {
+                manifest.add(new ExportManifest.Entry(filename, entry.cardHash(), entry.artworkHash()));
+            }
+            listener.onCardProcessed(result);
+        };
+
+        // 有清單時插圖雜湊已隨卡片計算，直接作為渲染快取鍵，插圖變更的卡片不會命中舊圖
+        if (manifest != null) {
+            imageGeneratorService.renderEachWithArtwork(toRender, scale, handler);
+        } else {
+            Iterable<TcgCard> plainCards = () -> new MappingIterator(toRender.iterator());
+            imageGeneratorService.renderEach(plainCards, scale, handler);
+        }
+        zos.finish();
+        zos.flush();
+
+        log.info("ZIP串流輸出完成: {}/{} 張卡片 (沿用 {} 張)，耗時 {} ms", counts[0] + counts[2],
+                counts[0] + counts[1] + counts[2], counts[2], System.currentTimeMillis() - startTime);
+        return counts[0] + counts[2];
+    }
+
+    /**
+     * 開啟基準ZIP，無法讀取時改為完整匯出
+     */
+    private ZipFile openBaseline(ArchiveBaseline baseline) {
+        if (baseline == null) {
+            return null;
+        }
+        try {
+            return new ZipFile(baseline.archive().toFile());
+        } catch (IOException e) {
+            log.warn("無法讀取上一份匯出，改為完整匯出: {} ({})", baseline.archive(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 複製基準ZIP中的項目 (已壓縮資料原樣寫入，不重新壓縮)
+     */
+    private void copyEntry(ZipFile source, ZipArchiveEntry original, String filename,
+                           ZipArchiveOutputStream zos) throws IOException {
+        ZipArchiveEntry copy = new ZipArchiveEntry(filename);
+        copy.setMethod(original.getMethod());
+        copy.setCrc(original.getCrc());
+        copy.setSize(original.getSize());
+        copy.setCompressedSize(original.getCompressedSize());
+        copy.setTime(original.getTime());
+
+        long writeStart = System.nanoTime();
+        try (InputStream raw = source.getRawInputStream(original)) {
+            zos.addRawArchiveEntry(copy, raw);
+        }
+        zos.flush();
+        entryWriteTimer.record(System.nanoTime() - writeStart, TimeUnit.NANOSECONDS);
+        reusedCounter.increment();
+        bytesCounter.increment(original.getSize());
+    }
+
+    /**
+     * 在預取工作池非同步計算插圖內容雜湊，無插圖時為空字串
+     */
+    private CompletableFuture<String> artworkHash(TcgCard card) {
+        String imageUrl = card.getImageUrl();
+        if (imageUrl == null || imageUrl.trim().isEmpty()) {
+            return CompletableFuture.completedFuture("");
+        }
+        return artworkPrefetcher.digest(imageUrl);
+    }
+
+    /**
+     * 等待插圖內容雜湊，無法載入時為 {@value #ARTWORK_UNAVAILABLE}
+     */
+    private static String awaitArtworkHash(CompletableFuture<String> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException | CancellationException e) {
+            return ARTWORK_UNAVAILABLE;
+        } catch (InterruptedException e) {
+            // 工作被取消，保留中斷狀態交由渲染端結束
+            Thread.currentThread().interrupt();
+            return ARTWORK_UNAVAILABLE;
+        }
+    }
+
+    /**
+     * 送交渲染的插圖內容摘要，插圖無法載入時為 null (不使用渲染快取)
+     */
+    private static String artworkDigest(String artworkHash) {
+        return ARTWORK_UNAVAILABLE.equals(artworkHash) ? null : artworkHash;
+    }
+
+    /**
+     * ZIP項目名稱 (序號從 1 開始)
+     */
+    private String entryName(int index, TcgCard card) {
+        return String.format("%03d_%s.%s", index + 1,
+                sanitizeFilename(card.getName()), imageGeneratorService.getFileExtension());
+    }
+
+    /**
+     * 清理檔案名稱，移除不安全字符
+     */
+    private String sanitizeFilename(String filename) {
+        if (filename == null) return "unnamed";
+        return filename.replaceAll("[^a-zA-Z0-9\\u4e00-\\u9fff_-]", "_");
+    }
+
+    /**
+     * 逐張判斷卡片是否需要渲染的迭代器
+     * 在渲染端取下一張卡片時執行 (與ZIP寫出同一執行緒)，未變更的卡片當場複製後略過。
+     * 插圖雜湊需要載入插圖，因此預先讀入後續數張卡片並交由預取工作池平行載入，
+     * 此執行緒只等待最前面一張的結果，不在網路I/O上逐張排隊
+     */
+    private class DeltaIterator implements Iterator<CardWithArtwork> {
+
+        private final Iterator<TcgCard> source;
+        private final String variant;
+        private final Baseline baseline;
+        private final ExportManifest manifest;
+        private final ZipArchiveOutputStream zos;
+        private final ArchiveProgressListener listener;
+        private final Deque<PendingEntry> pending;
+        private final int[] counts;
+        private final int lookahead;
+        // 已讀入、插圖雜湊計算中的卡片 (依輸入順序)
+        private final Deque<Lookahead> window = new ArrayDeque<>();
+        private int index;
+        private CardWithArtwork next;
+
+        DeltaIterator(Iterator<TcgCard> source, String variant, Baseline baseline, ExportManifest manifest,
+                      ZipArchiveOutputStream zos, ArchiveProgressListener listener,
+                      Deque<PendingEntry> pending, int[] counts) {
+            this.source = source;
+            this.variant = variant;
+            this.baseline = baseline;
+            this.manifest = manifest;
+            this.zos = zos;
+            this.listener = listener;
+            this.pending = pending;
+            this.counts = counts;
+            this.lookahead = Math.max(1, artworkPrefetcher.getPerHostConcurrency());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (manifest == null) {
+                if (next == null && source.hasNext()) {
+                    next = new CardWithArtwork(source.next(), null);
+                    pending.addLast(new PendingEntry(index++, null, null));
+                }
+                return next != null;
+            }
+
+            while (next == null) {
+                fillWindow();
+                Lookahead head = window.pollFirst();
+                if (head == null) {
+                    break;
+                }
+
+                TcgCard card = head.card();
+                int cardIndex = index++;
+                String cardHash = CardRenderCache.keyOf(card, variant);
+                String artworkHash = awaitArtworkHash(head.artworkHash());
+                if (!reuse(card, cardIndex, cardHash, artworkHash)) {
+                    pending.addLast(new PendingEntry(cardIndex, cardHash, artworkHash));
+                    next = new CardWithArtwork(card, artworkDigest(artworkHash));
+                }
+            }
+            return next != null;
+        }
+
+        /**
+         * 讀入後續卡片直到預讀數量，並開始載入其插圖
+         */
+        private void fillWindow() {
+            while (window.size() < lookahead && source.hasNext()) {
+                TcgCard card = source.next();
+                window.addLast(new Lookahead(card, artworkHash(card)));
+            }
+        }
+
+        @Override
+        public CardWithArtwork next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CardWithArtwork card = next;
+            next = null;
+            return card;
+        }
+
+        /**
+         * 基準中有相同內容的項目時直接複製
+         */
+        private boolean reuse(TcgCard card, int cardIndex, String cardHash, String artworkHash) {
+            if (baseline == null) {
+                return false;
+            }
+            ExportManifest.Entry previous = baseline.manifest().find(cardHash, artworkHash);
+            ZipArchiveEntry original = previous != null ? baseline.zip().getEntry(previous.entryName()) : null;
+            if (original == null) {
+                return false;
+            }
+
+            String filename = entryName(cardIndex, card);
+            try {
+                copyEntry(baseline.zip(), original, filename, zos);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            manifest.add(new ExportManifest.Entry(filename, cardHash, artworkHash));
+            counts[2]++;
+            listener.onCardReused(card);
+            return true;
+        }
+    }
+
+    /**
+     * 不需比對時只取出卡片 (插圖摘要由渲染端自行取得)
+     */
+    private static class MappingIterator implements Iterator<TcgCard> {
+
+        private final Iterator<CardWithArtwork> source;
+
+        MappingIterator(Iterator<CardWithArtwork> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return source.hasNext();
+        }
+
+        @Override
+        public TcgCard next() {
+            return source.next().card();
+        }
+    }
+
+    /**
+     * 已開啟的比對基準
+     */
+    private record Baseline(ZipFile zip, ExportManifest manifest) {
+    }
+
+    /**
+     * 已讀入、等待插圖雜湊的卡片
+     */
+    private record Lookahead(TcgCard card, CompletableFuture<String> artworkHash) {
+    }
+
+    /**
+     * 已送交渲染、等待寫入的卡片
+     */
+    private record PendingEntry(int index, String cardHash, String artworkHash) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.tcg.cardmaker.service.interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.tcg.cardmaker.model.ExportManifest;
+import com.tcg.cardmaker.model.TcgCard;
+import com.tcg.cardmaker.service.interfaces.ImageGeneratorService.RenderResult;
+
+/**
+ * 卡片打包服務介面
+ * 定義將卡片批量輸出為壓縮檔的契約
+ * 遵循介面隔離原則 (ISP) - 專注於打包輸出功能
+ */
+public interface CardArchiveService {
+    
+    /**
+     * 打包進度監聽器
+     * 每張卡片處理完成 (成功寫入或失敗跳過) 時呼叫
+     */
+    @FunctionalInterface
+    interface ArchiveProgressListener {
+        void onCardProcessed(RenderResult result);
+        
+        /**
+         * 卡片未變更，已直接沿用上一份匯出中的項目
+         */
+        default void onCardReused(TcgCard card) {
+        }
+    }
+    
+    /**
+     * 差異匯出的比對基準：上一份匯出的ZIP及其清單
+     */
+    record ArchiveBaseline(Path archive, ExportManifest manifest) {
+    }
+    
+    /**
+     * 渲染卡片並以串流方式寫出ZIP壓縮檔
+     * 每張卡片完成渲染後即寫入輸出串流，不在記憶體中保留整個壓縮檔
+     * 
+     * @param cards 卡片數據列表
+     * @param outputStream 輸出串流 (由呼叫端負責關閉)
+     * @return 成功寫入的卡片數量
+     * @throws IOException 寫出失敗時拋出異常
+     */
+    int writeArchive(List<TcgCard> cards, OutputStream outputStream) throws IOException;
+    
+    /**
+     * 以指定縮放比例渲染卡片並以串流方式寫出ZIP壓縮檔
+     * 
+     * @param cards 卡片數據列表
+     * @param scale 相對於 400x560 基準尺寸的縮放比例
+     * @param outputStream 輸出串流 (由呼叫端負責關閉)
+     * @return 成功寫入的卡片數量
+     * @throws IOException 寫出失敗時拋出異常
+     */
+    int writeArchive(List<TcgCard> cards, float scale, OutputStream outputStream) throws IOException;
+    
+    /**
+     * 渲染逐張取得的卡片並以串流方式寫出ZIP壓縮檔
+     * 卡片來源可為尚在解析中的串流，渲染會在第一張卡片到達時開始
+     * 
+     * @param cards 卡片來源 (僅迭代一次)
+     * @param outputStream 輸出串流 (由呼叫端負責關閉)
+     * @param listener 進度監聽器
+     * @return 成功寫入的卡片數量
+     * @throws IOException 寫出失敗時拋出異常
+     */
+    int writeArchive(Iterable<TcgCard> cards, OutputStream outputStream, 
+                     ArchiveProgressListener listener) throws IOException;
+    
+    /**
+     * 差異匯出：只渲染新增或變更的卡片
+     * 卡片欄位、渲染設定及插圖內容皆與基準清單中某個項目相同時，
+     * 直接複製基準ZIP中該項目的已壓縮資料 (不重新渲染或壓縮)
+     * 
+     * @param cards 卡片來源 (僅迭代一次)
+     * @param outputStream 輸出串流 (由呼叫端負責關閉)
+     * @param listener 進度監聽器
+     * @param baseline 比對基準，為 null 時全部渲染
+     * @param archiveName 本次匯出的ZIP檔名 (記錄於清單中)
+     * @return 本次匯出的清單
+     * @throws IOException 寫出或讀取基準ZIP失敗時拋出異常
+     */
+    ExportManifest writeDeltaArchive(Iterable<TcgCard> cards, OutputStream outputStream,
+                                     ArchiveProgressListener listener, ArchiveBaseline baseline,
+                                     String archiveName) throws IOException;
+}
@@ -0,0 +1,63 @@
+package com.tcg.cardmaker.service.interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+/**
+ * 拼版輸出服務介面
+ * 定義將多張卡片直接繪製於同一張印刷版面並輸出的契約
+ * 遵循介面隔離原則 (ISP) - 專注於印刷拼版輸出
+ */
+public interface CardSheetService {
+
+    /**
+     * 版面配置
+     * 出血、間距與邊界以 400x560 基準尺寸的像素為單位，與卡片一同依縮放比例放大
+     *
+     * @param columns 每張版面的欄數
+     * @param rows 每張版面的列數
+     * @param scale 卡片縮放比例
+     * @param bleed 每張卡片四周的出血寬度 (延伸卡片邊緣像素)
+     * @param gutter 相鄰卡片出血範圍之間的間距
+     * @param margin 版面四周的邊界，裁切標記繪製於此範圍
+     * @param cropMarks 是否繪製裁切標記
+     */
+    record SheetLayout(int columns, int rows, float scale, int bleed, int gutter, int margin, boolean cropMarks) {
+
+        /**
+         * 每張版面可容納的卡片數
+         */
+        public int cardsPerSheet() {
+            return columns * rows;
+        }
+    }
+
+    /**
+     * 取得預設版面配置
+     *
+     * @return 設定檔中的版面配置
+     */
+    SheetLayout getDefaultLayout();
+
+    /**
+     * 檢查版面配置是否可用 (欄列數、縮放比例及版面尺寸在允許範圍內)
+     *
+     * @param layout 版面配置
+     * @return 是否可用
+     */
+    boolean isSupportedLayout(SheetLayout layout);
+
+    /**
+     * 依版面配置將卡片繪製於版面，每張版面編碼為一張圖片並以串流方式寫出ZIP壓縮檔
+     *
+     * @param cards 卡片數據列表
+     * @param layout 版面配置
+     * @param outputStream 輸出串流 (由呼叫端負責關閉)
+     * @return 寫出的版面數
+     * @throws IOException 寫出失敗時拋出異常
+     */
+    int writeSheets(List<TcgCard> cards, SheetLayout layout, OutputStream outputStream) throws IOException;
+}
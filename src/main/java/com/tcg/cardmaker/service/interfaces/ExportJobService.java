@@ -0,0 +1,48 @@
+package com.tcg.cardmaker.service.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.tcg.cardmaker.model.ExportJob;
+
+/**
+ * 匯出工作服務介面
+ * 定義在伺服器端完成 解析→渲染→打包 的工作模式，卡片數據不需經過瀏覽器往返
+ * 遵循介面隔離原則 (ISP) - 專注於匯出工作管理
+ */
+public interface ExportJobService {
+    
+    /**
+     * 提交匯出工作
+     * 上傳檔案會先保存，隨後在背景執行管線
+     * 
+     * @param file 卡片數據檔案
+     * @param baselineJobId 作為差異匯出基準的先前工作ID，null 時完整匯出
+     * @return 已排入佇列的工作
+     * @throws IOException 保存上傳檔案失敗時拋出異常
+     * @throws IllegalArgumentException 基準工作ID格式不正確
+     * @throws com.tcg.cardmaker.exception.ExportJobRejectedException 執行中及排隊中的工作已達上限
+     */
+    ExportJob submit(MultipartFile file, String baselineJobId) throws IOException;
+    
+    /**
+     * 查詢工作
+     * 
+     * @param jobId 工作ID
+     * @return 工作，不存在或已過期時為空
+     */
+    Optional<ExportJob> getJob(String jobId);
+    
+    /**
+     * 開啟已完成工作的產出檔案
+     * 串流關閉前產出檔案不會被過期清除
+     * 
+     * @param job 已完成的工作
+     * @return 產出檔案串流 (由呼叫端負責關閉)，工作已過期清除時為空
+     * @throws IOException 開啟檔案失敗時拋出異常
+     */
+    Optional<InputStream> openArtifact(ExportJob job) throws IOException;
+}
@@ -1,6 +1,7 @@
 package com.tcg.cardmaker.service.interfaces;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,6 +23,17 @@ public interface FileParserService {
      */
     List<TcgCard> parseFile(MultipartFile file) throws Exception;
     
+    /**
+     * 以串流方式逐張解析檔案
+     * 卡片在讀取到時即交給下游，不需等待整個檔案解析完成，記憶體用量與檔案大小無關。
+     * 回傳的串流持有檔案資源，呼叫端必須關閉 (建議使用 try-with-resources)
+     * 
+     * @param file 上傳的檔案
+     * @return 依檔案順序排列的卡片串流；解析途中發生的錯誤以 UncheckedIOException 拋出
+     * @throws Exception 無法開啟檔案時拋出異常
+     */
+    Stream<TcgCard> streamFile(MultipartFile file) throws Exception;
+    
     /**
      * 檢查是否支援該檔案格式
      * 
@@ -1,5 +1,6 @@
 package com.tcg.cardmaker.service.interfaces;
 
+import java.awt.Graphics2D;
 import java.io.IOException;
 
 import com.tcg.cardmaker.model.TcgCard;
@@ -11,6 +12,46 @@ import com.tcg.cardmaker.model.TcgCard;
  */
 public interface ImageGeneratorService {
     
+    /**
+     * 批量渲染結果封裝類別
+     */
+    class RenderResult {
+        private final int index;
+        private final TcgCard card;
+        private final byte[] imageBytes;
+        private final Exception error;
+        
+        public RenderResult(int index, TcgCard card, byte[] imageBytes, Exception error) {
+            this.index = index;
+            this.card = card;
+            this.imageBytes = imageBytes;
+            this.error = error;
+        }
+        
+        // Getters
+        public boolean isSuccess() { return error == null && imageBytes != null; }
+        public int getIndex() { return index; }
+        public TcgCard getCard() { return card; }
+        public byte[] getImageBytes() { return imageBytes; }
+        public Exception getError() { return error; }
+    }
+    
+    /**
+     * 附帶插圖內容摘要的卡片 (摘要已由呼叫端計算，例如差異匯出的比對)
+     * artworkDigest：無插圖時為空字串，無法載入時為 null (不使用快取)
+     */
+    record CardWithArtwork(TcgCard card, String artworkDigest) {
+    }
+    
+    /**
+     * 批量渲染結果處理器
+     * 依輸入順序逐張接收渲染結果
+     */
+    @FunctionalInterface
+    interface RenderResultHandler {
+        void handle(RenderResult result) throws IOException;
+    }
+    
     /**
      * 生成卡片圖片
      * 
@@ -20,6 +61,53 @@ public interface ImageGeneratorService {
      */
     byte[] generateCardImage(TcgCard card) throws IOException;
     
+    /**
+     * 以指定縮放比例生成卡片圖片
+     * 以縮放後的座標直接繪製於目標解析度，而非放大預設尺寸的圖片
+     * 
+     * @param card 卡片數據
+     * @param scale 相對於 400x560 基準尺寸的縮放比例
+     * @return 圖片的byte陣列
+     * @throws IOException 圖片生成異常
+     * @throws IllegalArgumentException 不支援的縮放比例
+     */
+    byte[] generateCardImage(TcgCard card, float scale) throws IOException;
+    
+    /**
+     * 串流式批量生成卡片圖片
+     * 以平行方式渲染，並依輸入順序逐張交給處理器；
+     * 同時進行中的卡片數量有上限，記憶體用量不隨批量大小成長
+     * 
+     * @param cards 卡片數據
+     * @param handler 渲染結果處理器
+     * @throws IOException 處理器寫出失敗時拋出異常，其餘未完成的渲染將被取消
+     */
+    void renderEach(Iterable<TcgCard> cards, RenderResultHandler handler) throws IOException;
+    
+    /**
+     * 以指定縮放比例串流式批量生成卡片圖片
+     * 
+     * @param cards 卡片數據
+     * @param scale 相對於 400x560 基準尺寸的縮放比例
+     * @param handler 渲染結果處理器
+     * @throws IOException 處理器寫出失敗時拋出異常，其餘未完成的渲染將被取消
+     * @throws IllegalArgumentException 不支援的縮放比例
+     */
+    void renderEach(Iterable<TcgCard> cards, float scale, RenderResultHandler handler) throws IOException;
+    
+    /**
+     * 以指定縮放比例串流式批量生成卡片圖片，插圖內容摘要隨卡片一併提供
+     * 快取鍵使用提供的摘要，避免插圖已變更卻命中舊圖
+     * 
+     * @param cards 附帶插圖內容摘要的卡片
+     * @param scale 相對於 400x560 基準尺寸的縮放比例
+     * @param handler 渲染結果處理器
+     * @throws IOException 處理器寫出失敗時拋出異常，其餘未完成的渲染將被取消
+     * @throws IllegalArgumentException 不支援的縮放比例
+     */
+    void renderEachWithArtwork(Iterable<CardWithArtwork> cards, float scale,
+                               RenderResultHandler handler) throws IOException;
+    
     /**
      * 獲取支援的圖片格式
      * 
@@ -27,10 +115,59 @@ public interface ImageGeneratorService {
      */
     String[] getSupportedFormats();
     
+    /**
+     * 獲取輸出圖片的MIME類型
+     * 
+     * @return MIME類型，例如 image/png
+     */
+    String getContentType();
+    
+    /**
+     * 獲取輸出圖片的副檔名
+     * 
+     * @return 副檔名 (不含點)，例如 png
+     */
+    String getFileExtension();
+    
     /**
      * 獲取預設圖片尺寸
      * 
      * @return [寬度, 高度]
      */
     int[] getDefaultDimensions();
+    
+    /**
+     * 獲取預設縮放比例 (依設定的輸出尺寸換算)
+     * 
+     * @return 相對於 400x560 基準尺寸的縮放比例
+     */
+    float getDefaultScale();
+    
+    /**
+     * 獲取批量渲染輸出的版本識別
+     * 包含渲染器版本、編碼設定及縮放比例，任一項變更時渲染結果即可能不同
+     * 
+     * @param scale 縮放比例
+     * @return 版本識別字串
+     */
+    String getRenderVariant(float scale);
+    
+    /**
+     * 在呼叫端的圖形上下文繪製卡片，不編碼
+     * 圖形上下文的原點須已平移至卡片左上角 (裝置像素)，繪製範圍限於卡片區域；
+     * 供拼版等需要將多張卡片繪製於同一畫布的用途
+     * 
+     * @param card 卡片數據
+     * @param g2d 圖形上下文 (繪製後恢復其變換、裁切與筆觸)
+     * @param scale 相對於 400x560 基準尺寸的縮放比例
+     */
+    void drawCard(TcgCard card, Graphics2D g2d, float scale);
+    
+    /**
+     * 檢查是否支援指定的縮放比例
+     * 
+     * @param scale 縮放比例
+     * @return 是否支援
+     */
+    boolean isSupportedScale(float scale);
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.tcg.cardmaker.service.interfaces;
 
+import java.util.Optional;
+
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -18,14 +20,24 @@ public interface ImageStorageService {
         private final String thumbnailPath;
         private final String originalFilename;
         private final String errorMessage;
+        private final ThumbnailState thumbnailState;
+        private final String releaseToken;
         
         public UploadResult(boolean success, String filePath, String thumbnailPath, 
                           String originalFilename, String errorMessage) {
+            this(success, filePath, thumbnailPath, originalFilename, errorMessage, null, null);
+        }
+        
+        public UploadResult(boolean success, String filePath, String thumbnailPath, 
+                          String originalFilename, String errorMessage, ThumbnailState thumbnailState,
+                          String releaseToken) {
             this.success = success;
             this.filePath = filePath;
             this.thumbnailPath = thumbnailPath;
             this.originalFilename = originalFilename;
             this.errorMessage = errorMessage;
+            this.thumbnailState = thumbnailState;
+            this.releaseToken = releaseToken;
         }
         
         // Getters
@@ -34,6 +46,27 @@ public interface ImageStorageService {
         public String getThumbnailPath() { return thumbnailPath; }
         public String getOriginalFilename() { return originalFilename; }
         public String getErrorMessage() { return errorMessage; }
+        public ThumbnailState getThumbnailState() { return thumbnailState; }
+        public String getReleaseToken() { return releaseToken; }
+    }
+    
+    /**
+     * 縮圖狀態
+     */
+    enum ThumbnailState {
+        PENDING,
+        READY,
+        FAILED
+    }
+    
+    /**
+     * 縮圖狀態查詢結果
+     * 
+     * @param filename 上傳後的檔案名稱
+     * @param state 縮圖狀態
+     * @param thumbnailPath 縮圖路徑 (READY 時可讀取)
+     */
+    record ThumbnailStatus(String filename, ThumbnailState state, String thumbnailPath) {
     }
     
     /**
@@ -59,4 +92,23 @@ public interface ImageStorageService {
      * @return 完整路徑
      */
     String getImagePath(String filename);
+    
+    /**
+     * 查詢上傳圖片的縮圖狀態
+     * 縮圖於上傳回應後非同步產生
+     * 
+     * @param filename 上傳後的檔案名稱
+     * @return 縮圖狀態，圖片不存在時為空
+     */
+    Optional<ThumbnailStatus> getThumbnailStatus(String filename);
+    
+    /**
+     * 釋放一次圖片引用
+     * 相同內容的每次上傳各計一次引用，只能以該次上傳取得的釋放憑證釋放；引用數歸零時刪除圖片與縮圖
+     * 
+     * @param filename 上傳後的檔案名稱
+     * @param releaseToken 上傳時取得的釋放憑證
+     * @return 是否找到並釋放 (憑證不符時為 false)
+     */
+    boolean releaseImage(String filename, String releaseToken);
 }
\ No newline at end of file
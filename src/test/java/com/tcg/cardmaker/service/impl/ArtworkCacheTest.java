@@ -0,0 +1,226 @@
+package com.tcg.cardmaker.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ArtworkCache 遠端插圖的條件式請求、合併下載與舊副本退回測試 (以本機 HTTP 伺服器模擬來源)，
+ * 以及本地插圖限於上傳目錄的測試
+ */
+class ArtworkCacheTest {
+
+    private static final byte[] ARTWORK = "artwork-v1".getBytes(StandardCharsets.UTF_8);
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile Handler handler = this::serveWithEtag;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                handler.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void notModifiedReusesCachedCopy() throws IOException {
+        ArtworkCache cache = newCache(Duration.ZERO);
+
+        ArtworkCache.Artwork first = cache.load(url());
+        ArtworkCache.Artwork second = cache.load(url());
+
+        assertArrayEquals(ARTWORK, second.bytes());
+        assertEquals(first.digest(), second.digest());
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+        assertEquals(1, cache.getStats().downloads());
+        assertEquals(1, cache.getStats().revalidations());
+
+        // 記憶體中沒有副本時，304 改由磁碟副本提供
+        ArtworkCache restarted = newCache(Duration.ZERO);
+        ArtworkCache.Artwork fromDisk = restarted.load(url());
+
+        assertArrayEquals(ARTWORK, fromDisk.bytes());
+        assertEquals(2, notModified.get());
+        assertEquals(0, restarted.getStats().downloads());
+    }
+
+    @Test
+    void concurrentLoadsShareOneFetch() throws Exception {
+        ArtworkCache cache = newCache(Duration.ofMinutes(10));
+        CountDownLatch release = new CountDownLatch(1);
+        handler = exchange -> {
+            release.await(10, TimeUnit.SECONDS);
+            serveWithEtag(exchange);
+        };
+
+        int callers = 8;
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ArtworkCache.Artwork>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(callerPool.submit(() -> cache.load(url())));
+            }
+
+            // 等待其餘呼叫端都合併至進行中的下載後再放行回應
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.getStats().coalesced() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<ArtworkCache.Artwork> result : results) {
+                assertArrayEquals(ARTWORK, result.get(10, TimeUnit.SECONDS).bytes());
+            }
+        } finally {
+            callerPool.shutdownNow();
+        }
+
+        assertEquals(1, requests.get());
+        assertEquals(callers - 1, cache.getStats().coalesced());
+        assertEquals(1, cache.getStats().downloads());
+    }
+
+    @Test
+    void originFailureServesStaleCopy() throws IOException {
+        ArtworkCache cache = newCache(Duration.ZERO);
+        String digest = cache.load(url()).digest();
+
+        handler = exchange -> exchange.sendResponseHeaders(500, -1);
+        ArtworkCache.Artwork stale = cache.load(url());
+
+        assertArrayEquals(ARTWORK, stale.bytes());
+        assertEquals(digest, stale.digest());
+        assertEquals(1, cache.getStats().staleServed());
+    }
+
+    @Test
+    void oversizedResponseIsRejected() {
+        ArtworkCache cache = newCache(Duration.ZERO, DataSize.ofBytes(ARTWORK.length - 1));
+
+        IOException declared = assertThrows(IOException.class, () -> cache.load(url()));
+        assertTrue(declared.getMessage().contains("大小上限"));
+
+        // 未宣告長度的回應同樣在讀取時受限
+        handler = exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ARTWORK);
+            }
+        };
+        IOException chunked = assertThrows(IOException.class, () -> cache.load(url()));
+        assertTrue(chunked.getMessage().contains("大小上限"));
+        assertEquals(0, cache.getStats().downloads());
+    }
+
+    @Test
+    void localSourcesOutsideUploadsAreRejected() throws IOException {
+        ArtworkCache cache = newCache(Duration.ZERO);
+        Path outside = Files.write(tempDir.resolve("secret.png"), ARTWORK);
+        Path images = Files.createDirectories(tempDir.resolve("uploads").resolve("images"));
+
+        assertThrows(IOException.class, () -> cache.load(outside.toString()));
+        assertThrows(IOException.class, () -> cache.load(images.resolve("..").resolve("..").resolve("secret.png").toString()));
+    }
+
+    @Test
+    void storedContentAddressedFileIsFoundByName() throws IOException {
+        ArtworkCache cache = newCache(Duration.ZERO);
+        String digest = ArtworkCache.sha256Hex(ARTWORK);
+        Path stored = LocalImageStorageService.storedPath(tempDir.resolve("uploads").resolve("images"), digest + ".png");
+        Files.createDirectories(stored.getParent());
+        Files.write(stored, ARTWORK);
+
+        ArtworkCache.Artwork artwork = cache.load(digest + ".png");
+
+        assertArrayEquals(ARTWORK, artwork.bytes());
+        assertEquals(digest, artwork.digest());
+        assertEquals(digest, cache.cachedDigest(digest + ".png"));
+    }
+
+    private void serveWithEtag(HttpExchange exchange) throws IOException {
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.sendResponseHeaders(200, ARTWORK.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(ARTWORK);
+        }
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/art.png";
+    }
+
+    private ArtworkCache newCache(Duration revalidateAfter) {
+        return newCache(revalidateAfter, DataSize.ofMegabytes(1));
+    }
+
+    private ArtworkCache newCache(Duration revalidateAfter, DataSize maxDownloadSize) {
+        return new ArtworkCache(tempDir.resolve("temp").toString(), tempDir.resolve("uploads").toString(),
+                DataSize.ofMegabytes(1), revalidateAfter, maxDownloadSize, new SimpleMeterRegistry());
+    }
+
+    /**
+     * 可拋出中斷的請求處理器
+     */
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+}
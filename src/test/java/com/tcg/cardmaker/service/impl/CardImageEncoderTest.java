@@ -0,0 +1,75 @@
+package com.tcg.cardmaker.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * PngEncoder 經 CardImageEncoder 編碼後以 ImageIO 解碼的往返測試
+ */
+class CardImageEncoderTest {
+
+    @ParameterizedTest
+    @EnumSource(PngEncoder.Filter.class)
+    void pngRoundTripsUnderEveryFilterAndProfile(PngEncoder.Filter filter) throws IOException {
+        CardImageEncoder encoder = new CardImageEncoder("PNG", 95, 1, filter, 9, filter);
+        CardImageEncoder.Session session = encoder.newSession();
+        try {
+            for (CardImageEncoder.Profile profile : CardImageEncoder.Profile.values()) {
+                // 不同尺寸交替編碼，確認重複使用的緩衝區不會殘留上一張的資料
+                assertRoundTrip(canvas(400, 560, 1), session.encode(canvas(400, 560, 1), profile));
+                assertRoundTrip(canvas(37, 5, 2), session.encode(canvas(37, 5, 2), profile));
+                assertRoundTrip(canvas(1, 1, 3), session.encode(canvas(1, 1, 3), profile));
+                assertRoundTrip(canvas(750, 1050, 4), session.encode(canvas(750, 1050, 4), profile));
+            }
+        } finally {
+            session.dispose();
+        }
+    }
+
+    private static void assertRoundTrip(BufferedImage expected, byte[] png) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(decoded);
+        assertEquals(expected.getWidth(), decoded.getWidth());
+        assertEquals(expected.getHeight(), decoded.getHeight());
+        int width = expected.getWidth();
+        int[] expectedRow = new int[width];
+        int[] decodedRow = new int[width];
+        for (int y = 0; y < expected.getHeight(); y++) {
+            expected.getRGB(0, y, width, 1, expectedRow, 0, width);
+            decoded.getRGB(0, y, width, 1, decodedRow, 0, width);
+            for (int x = 0; x < width; x++) {
+                expectedRow[x] &= 0xFFFFFF;
+                decodedRow[x] &= 0xFFFFFF;
+            }
+            assertArrayEquals(expectedRow, decodedRow, "row " + y);
+        }
+    }
+
+    /**
+     * 漸層加雜訊的畫布，讓各濾波方式都產生非零差值
+     */
+    private static BufferedImage canvas(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(16)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(16)) & 0xFF;
+                int b = random.nextInt(256);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+}
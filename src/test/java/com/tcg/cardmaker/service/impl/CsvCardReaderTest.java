@@ -0,0 +1,136 @@
+package com.tcg.cardmaker.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.tcg.cardmaker.model.TcgCard;
+
+/**
+ * CsvCardReader 切分欄位與數值解析測試
+ */
+class CsvCardReaderTest {
+
+    private static final String HEADER = "名稱,類型,稀有度,攻擊力,防禦力,費用,描述\n";
+
+    @Test
+    void quotedFieldKeepsCommas() throws IOException {
+        List<TcgCard> cards = read(HEADER + "\"火龍,戰士\",生物,稀有,8,6,5,\"強大, 迅速\"\n");
+
+        assertEquals(1, cards.size());
+        assertEquals("火龍,戰士", cards.get(0).getName());
+        assertEquals("強大, 迅速", cards.get(0).getDescription());
+        assertEquals(5, cards.get(0).getCost());
+    }
+
+    @Test
+    void escapedQuotesAreUnescaped() throws IOException {
+        List<TcgCard> cards = read(HEADER + "\"\"\"引號\"\"龍\",生物,稀有,1,2,3,\"說 \"\"你好\"\"\"\n");
+
+        assertEquals("\"引號\"龍", cards.get(0).getName());
+        assertEquals("說 \"你好\"", cards.get(0).getDescription());
+    }
+
+    @Test
+    void quotedFieldKeepsNewlines() throws IOException {
+        List<TcgCard> cards = read(HEADER + "龍,生物,稀有,1,2,3,\"第一行\n第二行\r\n第三行\"\n騎士,生物,普通,4,5,6,描述\n");
+
+        assertEquals(2, cards.size());
+        assertEquals("第一行\n第二行\r\n第三行", cards.get(0).getDescription());
+        assertEquals("騎士", cards.get(1).getName());
+    }
+
+    @Test
+    void crlfLineEndings() throws IOException {
+        List<TcgCard> cards = read(HEADER.replace("\n", "\r\n") + "龍,生物,稀有,1,2,3,描述\r\n\r\n騎士,生物,普通,4,5,6\r\n");
+
+        assertEquals(2, cards.size());
+        assertEquals("描述", cards.get(0).getDescription());
+        assertEquals(6, cards.get(1).getCost());
+    }
+
+    @Test
+    void recordsSpanningBufferRefills() throws IOException {
+        // 來源每次只回傳少量字元，紀錄必然跨越多次補充緩衝區；超長欄位強制擴充緩衝區
+        String longDescription = "長\"\"描述,".repeat(30_000);
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 200; i++) {
+            csv.append("\"卡片,").append(i).append("\",生物,稀有,").append(i).append(",2,3,\"")
+               .append(i == 100 ? longDescription : "描述\n" + i).append("\"\r\n");
+        }
+
+        List<TcgCard> cards = read(new ChunkedReader(csv.toString(), 7));
+
+        assertEquals(200, cards.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("卡片," + i, cards.get(i).getName());
+            assertEquals(i, cards.get(i).getAttack());
+        }
+        assertEquals(longDescription.replace("\"\"", "\""), cards.get(100).getDescription());
+        assertEquals("描述\n199", cards.get(199).getDescription());
+    }
+
+    @Test
+    void numericFieldsMatchXlsxParsing() throws IOException {
+        List<TcgCard> cards = read(HEADER + "龍,生物,稀有,5.0,-2.7,,描述\n騎士,生物,普通,abc,1.2.3,+4\n");
+
+        assertEquals(5, cards.get(0).getAttack());
+        assertEquals(-2, cards.get(0).getDefense());
+        assertEquals(0, cards.get(0).getCost());
+        assertEquals(0, cards.get(1).getAttack());
+        assertEquals(0, cards.get(1).getDefense());
+        assertEquals(4, cards.get(1).getCost());
+    }
+
+    @Test
+    void skipsBlankAndIncompleteRecords() throws IOException {
+        List<TcgCard> cards = read(HEADER + "\n龍,生物\n,生物,稀有,1,2,3\n騎士,生物,普通,4,5,6");
+
+        assertEquals(1, cards.size());
+        assertEquals("騎士", cards.get(0).getName());
+    }
+
+    private static List<TcgCard> read(String csv) throws IOException {
+        return read(new StringReader(csv));
+    }
+
+    private static List<TcgCard> read(Reader source) throws IOException {
+        List<TcgCard> cards = new ArrayList<>();
+        try (CsvCardReader reader = new CsvCardReader(source, true)) {
+            reader.forEachRemaining(cards::add);
+            assertFalse(reader.hasNext());
+        }
+        return cards;
+    }
+
+    /**
+     * 每次最多回傳指定字元數的來源
+     */
+    private static final class ChunkedReader extends Reader {
+
+        private final StringReader delegate;
+        private final int chunkSize;
+
+        ChunkedReader(String content, int chunkSize) {
+            this.delegate = new StringReader(content);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return delegate.read(cbuf, off, Math.min(len, chunkSize));
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}